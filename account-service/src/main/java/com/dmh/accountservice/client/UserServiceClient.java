@@ -0,0 +1,15 @@
+package com.dmh.accountservice.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+
+@FeignClient(name = "user-service")
+public interface UserServiceClient {
+
+    /**
+     * Avisa que cambiaron los datos de la cuenta del usuario, para que user-service descarte su perfil cacheado.
+     */
+    @PostMapping("/api/users/internal/{userId}/account-changed")
+    void accountChanged(@PathVariable Long userId);
+}
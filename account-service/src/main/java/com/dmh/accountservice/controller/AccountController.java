@@ -29,6 +29,12 @@ import java.util.List;
 public class AccountController {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
+
+    /**
+     * Otras cuentas modificadas por la request (además de la del path). El
+     * API Gateway invalida su cache de respuestas y quita el header.
+     */
+    static final String AFFECTED_ACCOUNTS_HEADER = "X-Affected-Accounts";
     private final AccountService accountService;
     private final TransactionService transactionService;
 
@@ -118,7 +124,11 @@ public class AccountController {
                    id, request.getDestination(), request.getAmount());
 
         TransferResponse response = transactionService.performTransfer(id, request, authenticatedUserId);
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.OK);
+        if (response.getDestinationAccountId() != null) {
+            builder.header(AFFECTED_ACCOUNTS_HEADER, response.getDestinationAccountId().toString());
+        }
+        return builder.body(response);
     }
 
     @GetMapping("/{id}/activity")
@@ -1,5 +1,6 @@
 package com.dmh.accountservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,4 +26,11 @@ public class TransferResponse {
     private String status;
     private BigDecimal newBalance;
     private LocalDateTime createdAt;
+
+    /**
+     * Cuenta que recibió la transferencia. No se serializa: el controller la
+     * informa al API Gateway en un header para que invalide su cache.
+     */
+    @JsonIgnore
+    private Long destinationAccountId;
 }
@@ -1,5 +1,6 @@
 package com.dmh.accountservice.service;
 
+import com.dmh.accountservice.client.UserServiceClient;
 import com.dmh.accountservice.dto.AccountResponse;
 import com.dmh.accountservice.dto.CreateAccountRequest;
 import com.dmh.accountservice.dto.UpdateAccountRequest;
@@ -13,6 +14,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -31,12 +34,15 @@ public class AccountService {
     private static final int MAX_ATTEMPTS = 10;
 
     private final AccountRepository accountRepository;
+    private final UserServiceClient userServiceClient;
     private final List<String> words;
     private final Random random;
 
     public AccountService(AccountRepository accountRepository,
+                          UserServiceClient userServiceClient,
                           @Value("${account.alias.words-file:classpath:words.txt}") String wordsFile) {
         this.accountRepository = accountRepository;
+        this.userServiceClient = userServiceClient;
         this.random = new SecureRandom();
         this.words = loadWords(wordsFile);
         logger.info("AccountService initialized with {} words for alias generation", words.size());
@@ -104,10 +110,36 @@ public class AccountService {
         account.setAlias(request.getAlias());
         Account updatedAccount = accountRepository.save(account);
         logger.info("Account updated successfully: ID={}, New Alias={}", accountId, request.getAlias());
+        notifyUserServiceAfterCommit(updatedAccount.getUserId());
 
         return mapToResponse(updatedAccount);
     }
 
+    /**
+     * user-service cachea el perfil con el alias: se le avisa una vez confirmado el cambio.
+     * Best-effort: si el aviso falla, el cache de user-service vence solo (TTL).
+     */
+    private void notifyUserServiceAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notifyUserService(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notifyUserService(userId);
+            }
+        });
+    }
+
+    private void notifyUserService(Long userId) {
+        try {
+            userServiceClient.accountChanged(userId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not notify user-service about account change for user {}: {}", userId, e.getMessage());
+        }
+    }
+
     /**
      * Genera un CVU único de 22 dígitos
      */
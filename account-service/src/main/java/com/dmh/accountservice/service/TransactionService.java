@@ -361,6 +361,7 @@ public class TransactionService {
                 .status(savedTransferOut.getStatus().name())
                 .newBalance(newSourceBalance)
                 .createdAt(savedTransferOut.getCreatedAt())
+                .destinationAccountId(destinationAccount.getId())
                 .build();
     }
 
@@ -1,34 +1,26 @@
 package com.dmh.accountservice.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.dmh.jwt.JwtVerificationException;
+import com.dmh.jwt.JwtVerifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
-import java.util.function.Function;
-
 /**
  * Utilidad para validar y extraer información de JWT tokens.
  * 
  * Nota: Este servicio NO genera tokens (eso lo hace user-service).
  * Solo valida y extrae información para verificar ownership.
+ *
+ * Usa el JwtVerifier compartido (jwt-core): la clave se construye una sola
+ * vez a partir del MISMO secret que usa user-service.
  */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtVerifier verifier;
 
-    /**
-     * Genera la clave de firma a partir del secret en Base64.
-     * Debe ser la MISMA clave que usa user-service.
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.verifier = new JwtVerifier(secret);
     }
 
     /**
@@ -36,34 +28,14 @@ public class JwtUtil {
      * Este userId se usa para validar ownership de las cuentas.
      */
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verifier.verify(token).userId();
     }
 
     /**
      * Extrae el email (subject) del token.
      */
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    /**
-     * Extrae un claim específico del token usando una función.
-     */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    /**
-     * Extrae todos los claims del token.
-     * Valida la firma usando la secret key.
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return verifier.verify(token).subject();
     }
 
     /**
@@ -72,9 +44,9 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token) {
         try {
-            extractAllClaims(token);
+            verifier.verify(token);
             return true;
-        } catch (Exception e) {
+        } catch (JwtVerificationException e) {
             return false;
         }
     }
@@ -87,6 +87,7 @@ class AccountControllerTransferTest {
                 .transactionId(1L)
                 .accountId(1L)
                 .destination("0987654321098765432109")
+                .destinationAccountId(2L)
                 .amount(BigDecimal.valueOf(100.00))
                 .description("Test transfer")
                 .status("COMPLETED")
@@ -108,6 +109,7 @@ class AccountControllerTransferTest {
         assertEquals("0987654321098765432109", response.getBody().getDestination());
         assertEquals(BigDecimal.valueOf(100.00), response.getBody().getAmount());
         assertEquals("COMPLETED", response.getBody().getStatus());
+        assertEquals("2", response.getHeaders().getFirst(AccountController.AFFECTED_ACCOUNTS_HEADER));
     }
 
     @Test
@@ -1,7 +1,9 @@
 package com.dmh.accountservice.service;
 
+import com.dmh.accountservice.client.UserServiceClient;
 import com.dmh.accountservice.dto.AccountResponse;
 import com.dmh.accountservice.dto.CreateAccountRequest;
+import com.dmh.accountservice.dto.UpdateAccountRequest;
 import com.dmh.accountservice.entity.Account;
 import com.dmh.accountservice.exception.AccountAlreadyExistsException;
 import com.dmh.accountservice.exception.AccountNotFoundException;
@@ -25,6 +27,9 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private UserServiceClient userServiceClient;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -89,4 +94,40 @@ class AccountServiceTest {
 
         assertThrows(AccountNotFoundException.class, () -> accountService.getAccountByUserId(userId));
     }
+
+    @Test
+    void testUpdateAccount_NotifiesUserService() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setUserId(7L);
+        account.setAlias("sol.luna.estrella");
+        account.setBalance(BigDecimal.ZERO);
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.existsByAlias("mar.rio.lago")).thenReturn(false);
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        AccountResponse response = accountService.updateAccount(1L, new UpdateAccountRequest("mar.rio.lago"));
+
+        assertEquals("mar.rio.lago", response.getAlias());
+        verify(userServiceClient).accountChanged(7L);
+    }
+
+    @Test
+    void testUpdateAccount_UserServiceDownDoesNotFail() {
+        Account account = new Account();
+        account.setId(1L);
+        account.setUserId(7L);
+        account.setAlias("sol.luna.estrella");
+        account.setBalance(BigDecimal.ZERO);
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.existsByAlias("mar.rio.lago")).thenReturn(false);
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new IllegalStateException("user-service unavailable")).when(userServiceClient).accountChanged(7L);
+
+        AccountResponse response = accountService.updateAccount(1L, new UpdateAccountRequest("mar.rio.lago"));
+
+        assertEquals("mar.rio.lago", response.getAlias());
+    }
 }
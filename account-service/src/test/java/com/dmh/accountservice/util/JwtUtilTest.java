@@ -0,0 +1,53 @@
+package com.dmh.accountservice.util;
+
+import com.dmh.jwt.JwtSigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "testSecretKey12345678901234567890";
+
+    private JwtUtil jwtUtil;
+    private JwtSigner signer;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET);
+        signer = new JwtSigner(SECRET);
+    }
+
+    @Test
+    void testValidToken() {
+        String token = token(Instant.now().plus(Duration.ofHours(1)));
+
+        assertTrue(jwtUtil.validateToken(token));
+        assertEquals(1L, jwtUtil.extractUserId(token));
+        assertEquals("test@example.com", jwtUtil.extractEmail(token));
+    }
+
+    @Test
+    void testExpiredTokenIsInvalid() {
+        String token = token(Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertFalse(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    void testWrongSignatureIsInvalid() {
+        String token = new JwtSigner("otherSecretKey1234567890123456789012")
+                .sign(Map.of("userId", 1L), "test@example.com", Instant.now(), Instant.now().plus(Duration.ofHours(1)));
+
+        assertFalse(jwtUtil.validateToken(token));
+    }
+
+    private String token(Instant expiresAt) {
+        return signer.sign(Map.of("userId", 1L), "test@example.com", expiresAt.minus(Duration.ofHours(2)), expiresAt);
+    }
+}
@@ -3,9 +3,11 @@ package com.dmh.api_gateway;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"com.dmh.api_gateway", "com.dmh.apigateway"})
+@EnableScheduling
 public class ApiGatewayApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,50 @@
+package com.dmh.apigateway.accesslog;
+
+/**
+ * Slot reutilizable del ring buffer de access log.
+ *
+ * Se pre-aloca una instancia por posición del buffer y se sobreescribe en
+ * cada vuelta, así registrar una request no crea objetos nuevos.
+ */
+public final class AccessLogEntry {
+
+    long timestamp;
+    String method;
+    String path;
+    String routeId;
+    int status;
+    long latencyMicros;
+    long userId;
+    String clientIp;
+
+    void set(long timestamp, String method, String path, String routeId,
+             int status, long latencyMicros, long userId, String clientIp) {
+        this.timestamp = timestamp;
+        this.method = method;
+        this.path = path;
+        this.routeId = routeId;
+        this.status = status;
+        this.latencyMicros = latencyMicros;
+        this.userId = userId;
+        this.clientIp = clientIp;
+    }
+
+    /**
+     * Formato compacto clave=valor, una línea por request.
+     */
+    void appendTo(StringBuilder out) {
+        out.append("ts=").append(timestamp)
+                .append(" method=").append(method)
+                .append(" path=").append(path)
+                .append(" route=").append(routeId != null ? routeId : "-")
+                .append(" status=").append(status)
+                .append(" latency_us=").append(latencyMicros)
+                .append(" user=");
+        if (userId >= 0) {
+            out.append(userId);
+        } else {
+            out.append('-');
+        }
+        out.append(" ip=").append(clientIp != null ? clientIp : "-");
+    }
+}
@@ -0,0 +1,80 @@
+package com.dmh.apigateway.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Ring buffer de capacidad fija, varios productores y un único consumidor.
+ *
+ * Los productores (threads de Netty) reservan una secuencia con CAS, llenan
+ * el slot pre-alocado y lo publican escribiendo su secuencia en published.
+ * El consumidor lee en orden mientras la secuencia esperada esté publicada.
+ *
+ * Si el buffer está lleno el registro se descarta: el access log nunca
+ * bloquea ni frena una request.
+ */
+public class AccessLogRingBuffer {
+
+    private final AccessLogEntry[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+
+    public AccessLogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AccessLogEntry[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AccessLogEntry();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * @return false si el buffer estaba lleno y el registro se descartó
+     */
+    public boolean tryPublish(long timestamp, String method, String path, String routeId,
+                              int status, long latencyMicros, long userId, String clientIp) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        slots[index].set(timestamp, method, path, routeId, status, latencyMicros, userId, clientIp);
+        published.set(index, sequence);
+        return true;
+    }
+
+    /**
+     * Entrega al consumidor hasta maxEntries registros publicados, en orden.
+     * Solo debe llamarse desde un único thread.
+     *
+     * @return cantidad de registros consumidos
+     */
+    public int drain(Consumer<AccessLogEntry> consumer, int maxEntries) {
+        long next = consumed;
+        int drained = 0;
+        while (drained < maxEntries && published.get((int) (next & mask)) == next) {
+            consumer.accept(slots[(int) (next & mask)]);
+            next++;
+            drained++;
+        }
+        consumed = next;
+        return drained;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long backlog() {
+        return claimed.get() - consumed;
+    }
+}
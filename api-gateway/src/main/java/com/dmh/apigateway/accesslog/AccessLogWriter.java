@@ -0,0 +1,128 @@
+package com.dmh.apigateway.accesslog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access log del gateway: un registro compacto por request.
+ *
+ * Las requests exitosas se muestrean (sample-rate) y los errores (status >= 400)
+ * se registran siempre. El thread de la request solo copia los campos a un
+ * slot del ring buffer; el formateo y la escritura al logger
+ * "com.dmh.apigateway.access" los hace un thread de fondo.
+ *
+ * Métricas: gateway.access-log.written, gateway.access-log.dropped (buffer lleno)
+ * y gateway.access-log.backlog.
+ */
+@Component
+public class AccessLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final Logger accessLog = LoggerFactory.getLogger("com.dmh.apigateway.access");
+
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final AccessLogRingBuffer ringBuffer;
+    private final Counter written;
+    private final Counter dropped;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AccessLogWriter(@Value("${gateway.access-log.enabled:true}") boolean enabled,
+                           @Value("${gateway.access-log.buffer-size:8192}") int bufferSize,
+                           @Value("${gateway.access-log.sample-rate:0.1}") double sampleRate,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.ringBuffer = new AccessLogRingBuffer(bufferSize);
+        this.written = Counter.builder("gateway.access-log.written")
+                .description("Registros de access log escritos")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("gateway.access-log.dropped")
+                .description("Registros de access log descartados por buffer lleno")
+                .register(meterRegistry);
+        Gauge.builder("gateway.access-log.backlog", ringBuffer, AccessLogRingBuffer::backlog)
+                .description("Registros pendientes de escribir")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decide si la request se registra. Los errores siempre; las exitosas según sample-rate.
+     */
+    public boolean shouldLog(int status) {
+        return enabled && (status >= 400 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Encola el registro sin bloquear.
+     *
+     * @param userId id del usuario autenticado, o -1 si la request no lo tiene
+     */
+    public void log(String method, String path, String routeId, int status,
+                    long latencyMicros, long userId, String clientIp) {
+        if (!ringBuffer.tryPublish(System.currentTimeMillis(), method, path, routeId,
+                status, latencyMicros, userId, clientIp)) {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::run, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("📝 Access log enabled (sample rate {}, buffer {})", sampleRate, ringBuffer.capacity());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (ringBuffer.drain(this::write, DRAIN_BATCH) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // Vacía lo pendiente al apagar
+        while (ringBuffer.drain(this::write, DRAIN_BATCH) > 0) {
+            // sigue drenando
+        }
+    }
+
+    private void write(AccessLogEntry entry) {
+        line.setLength(0);
+        entry.appendTo(line);
+        accessLog.info(line.toString());
+        written.increment();
+    }
+}
@@ -0,0 +1,14 @@
+package com.dmh.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Respuesta 200 cacheada por ResponseCache: headers end-to-end y cuerpo completo.
+ */
+public record CachedResponse(HttpHeaders headers, byte[] body, long storedAtNanos) {
+
+    /** Peso aproximado en bytes para el límite de memoria */
+    int weight() {
+        return body.length + 256;
+    }
+}
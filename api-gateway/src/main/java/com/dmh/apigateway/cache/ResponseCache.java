@@ -0,0 +1,175 @@
+package com.dmh.apigateway.cache;
+
+import com.dmh.apigateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Respuestas GET cacheadas por usuario, agrupadas por scope (el recurso, p. ej.
+ * la cuenta /api/accounts/{id}).
+ *
+ * Cada scope guarda sus entradas y una versión. Una escritura sobre el scope
+ * lo vacía y sube la versión; una respuesta que se pidió con una versión
+ * anterior ya no se guarda, así una lectura que estaba en curso durante la
+ * escritura no vuelve a dejar datos viejos.
+ *
+ * El tamaño se acota por el peso total de los cuerpos (max-size). Métricas
+ * de Caffeine bajo "gateway.response-cache" y gateway.response-cache.requests
+ * por result (hit, stale, stale_if_error, miss).
+ */
+@Component
+public class ResponseCache {
+
+    public enum Freshness {
+        /** Dentro del ttl */
+        FRESH,
+        /** Dentro de stale-while-revalidate: se sirve y se refresca */
+        STALE,
+        /** Solo se puede servir si el servicio falla */
+        STALE_IF_ERROR
+    }
+
+    public record Lookup(CachedResponse response, Freshness freshness) {
+    }
+
+    private final ResponseCacheProperties properties;
+    private final Cache<String, ScopeEntries> scopes;
+    private final List<PathPattern> cacheablePaths;
+    private final PathPattern scopePattern;
+    private final LongSupplier nanoClock;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.meterRegistry = meterRegistry;
+        this.scopes = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String scope, ScopeEntries entries) -> entries.weight())
+                .expireAfterWrite(properties.maxAge())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, scopes, "gateway.response-cache");
+
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.cacheablePaths = properties.getPaths().stream().map(parser::parse).toList();
+        this.scopePattern = parser.parse(properties.getScopePattern());
+    }
+
+    /**
+     * @return el id del recurso según scope-pattern, o null si el path no pertenece a ningún scope
+     */
+    public String scopeOf(String path) {
+        PathPattern.PathMatchInfo match = scopePattern.matchAndExtract(PathContainer.parsePath(path));
+        return match == null ? null : match.getUriVariables().get("id");
+    }
+
+    public boolean isCacheable(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        return cacheablePaths.stream().anyMatch(pattern -> pattern.matches(container));
+    }
+
+    public long version(String scope) {
+        ScopeEntries entries = scopes.getIfPresent(scope);
+        return entries == null ? 0 : entries.version();
+    }
+
+    /**
+     * @return la entrada y su frescura, o null si no hay o ya no se puede servir
+     */
+    public Lookup lookup(String scope, String key) {
+        ScopeEntries entries = scopes.getIfPresent(scope);
+        CachedResponse response = entries == null ? null : entries.responses().get(key);
+        if (response == null) {
+            return null;
+        }
+
+        long age = nanoClock.getAsLong() - response.storedAtNanos();
+        long ttl = properties.getTtl().toNanos();
+        if (age <= ttl) {
+            return new Lookup(response, Freshness.FRESH);
+        }
+        if (age <= ttl + properties.getStaleWhileRevalidate().toNanos()) {
+            return new Lookup(response, Freshness.STALE);
+        }
+        if (age <= ttl + properties.getStaleIfError().toNanos()) {
+            return new Lookup(response, Freshness.STALE_IF_ERROR);
+        }
+        return null;
+    }
+
+    /**
+     * Guarda la respuesta si el scope sigue en la versión con la que se pidió.
+     */
+    public void store(String scope, long expectedVersion, String key, CachedResponse response) {
+        if (response.body().length > properties.getMaxEntrySize().toBytes()) {
+            return;
+        }
+        long maxAge = properties.maxAge().toNanos();
+        long now = nanoClock.getAsLong();
+
+        scopes.asMap().compute(scope, (id, current) -> {
+            long version = current == null ? 0 : current.version();
+            if (version != expectedVersion) {
+                return current;
+            }
+            Map<String, CachedResponse> responses = new HashMap<>();
+            if (current != null) {
+                current.responses().forEach((existingKey, existing) -> {
+                    if (now - existing.storedAtNanos() <= maxAge) {
+                        responses.put(existingKey, existing);
+                    }
+                });
+            }
+            responses.put(key, response);
+            return new ScopeEntries(version, Map.copyOf(responses));
+        });
+    }
+
+    public void invalidate(String scope) {
+        scopes.asMap().compute(scope, (id, current) ->
+                new ScopeEntries(current == null ? 1 : current.version() + 1, Map.of()));
+    }
+
+    public CachedResponse newResponse(HttpHeaders headers, byte[] body) {
+        return new CachedResponse(headers, body, nanoClock.getAsLong());
+    }
+
+    public void recordRequest(String result) {
+        Counter.builder("gateway.response-cache.requests")
+                .description("Lecturas cacheables por resultado")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private record ScopeEntries(long version, Map<String, CachedResponse> responses) {
+
+        int weight() {
+            int weight = 64;
+            for (CachedResponse response : responses.values()) {
+                weight += response.weight();
+            }
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.dmh.apigateway.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copia local de las revocaciones de tokens publicadas por user-service.
+ *
+ * Se alimenta desde el feed SSE (ver RevocationFeedSubscriber). Mientras
+ * esté sincronizada, la consulta de blacklist es un lookup en memoria;
+ * si el feed se cae, vuelve a no estar sincronizada hasta el próximo resync
+ * y el filtro consulta a user-service por HTTP.
+ *
+ * También guarda la época de tokens de los usuarios que hicieron logout en
+ * todos lados (userId -> versión mínima válida). A diferencia de las
+ * revocaciones puntuales, la época se consulta aunque el set no esté
+ * sincronizado: solo crece, así que un valor viejo nunca acepta de más.
+ *
+ * Al perder el feed se conserva el último contenido sincronizado: el modo
+ * LAST_KNOWN de TokenBlacklistClient lo usa mientras user-service no responde
+ * (ver wasSyncedWithin).
+ *
+ * Cada entrada se descarta al pasar la expiración del token revocado
+ * (o del último token anterior a la época).
+ */
+@Component
+public class RevokedTokenSet {
+
+    private volatile Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile Map<Long, Epoch> epochs = new ConcurrentHashMap<>();
+    private volatile boolean synced = false;
+    /** Cuándo dejó de estar sincronizado, o 0 si nunca lo estuvo */
+    private volatile long unsyncedAt = 0;
+
+    public RevokedTokenSet(MeterRegistry meterRegistry) {
+        Gauge.builder("gateway.revoked-tokens.size", this, set -> set.revoked.size())
+                .description("Revocaciones conocidas localmente")
+                .register(meterRegistry);
+        Gauge.builder("gateway.revoked-tokens.epochs", this, set -> set.epochs.size())
+                .description("Usuarios con logout en todos lados vigente")
+                .register(meterRegistry);
+        Gauge.builder("gateway.revoked-tokens.synced", this, set -> set.synced ? 1 : 0)
+                .description("1 si el feed de revocaciones está sincronizado")
+                .register(meterRegistry);
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * true si está sincronizado o dejó de estarlo hace menos de maxAge: el
+     * contenido refleja todas las revocaciones hasta ese momento.
+     */
+    public boolean wasSyncedWithin(Duration maxAge) {
+        if (synced) {
+            return true;
+        }
+        long since = unsyncedAt;
+        return since > 0 && System.currentTimeMillis() - since <= maxAge.toMillis();
+    }
+
+    public boolean isRevoked(String digest) {
+        Long expiresAt = revoked.get(digest);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * true si el usuario hizo logout en todos lados después de emitirse un token con esta versión.
+     */
+    public boolean isSuperseded(Long userId, long tokenVersion) {
+        Epoch epoch = epochs.get(userId);
+        return epoch != null && tokenVersion < epoch.version() && epoch.expiresAt() > System.currentTimeMillis();
+    }
+
+    public void add(String digest, long expiresAt) {
+        if (expiresAt > System.currentTimeMillis()) {
+            revoked.put(digest, expiresAt);
+        }
+    }
+
+    public void addEpoch(Long userId, long tokenVersion, long expiresAt) {
+        if (expiresAt > System.currentTimeMillis()) {
+            epochs.merge(userId, new Epoch(tokenVersion, expiresAt), Epoch::merge);
+        }
+    }
+
+    /**
+     * Reemplaza el contenido completo tras un resync y marca el set como sincronizado.
+     */
+    public void replaceAll(Map<String, Long> snapshot) {
+        replaceAll(snapshot, Map.of());
+    }
+
+    /**
+     * Igual que replaceAll(snapshot), con las épocas recibidas en el mismo resync.
+     */
+    public void replaceAll(Map<String, Long> snapshot, Map<Long, Epoch> epochSnapshot) {
+        this.revoked = new ConcurrentHashMap<>(snapshot);
+        this.epochs = new ConcurrentHashMap<>(epochSnapshot);
+        this.synced = true;
+    }
+
+    public void markUnsynced() {
+        if (synced) {
+            this.unsyncedAt = System.currentTimeMillis();
+        }
+        this.synced = false;
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.auth.revocation-feed.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        epochs.values().removeIf(epoch -> epoch.expiresAt() <= now);
+    }
+
+    /**
+     * Versión mínima válida de los tokens de un usuario y hasta cuándo hace falta recordarla.
+     */
+    public record Epoch(long version, long expiresAt) {
+
+        public Epoch merge(Epoch other) {
+            return new Epoch(Math.max(version, other.version), Math.max(expiresAt, other.expiresAt));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.dmh.apigateway.cache;
+
+import java.time.Instant;
+
+/**
+ * Resultado cacheado de una verificación de token exitosa.
+ */
+public record VerifiedToken(Long userId, long tokenVersion, Instant expiresAt) {
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,91 @@
+package com.dmh.apigateway.cache;
+
+import com.dmh.jwt.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Cache acotado de tokens ya verificados (firma + blacklist).
+ *
+ * La clave es el SHA-256 del token, nunca el token en sí. Cada entrada
+ * vive hasta lo que ocurra primero: la expiración del token o el TTL
+ * máximo configurado, que acota cuánto tarda en notarse un logout
+ * hecho a través de otra instancia del gateway.
+ *
+ * Expone hits/misses/evictions en actuator bajo el nombre
+ * "gateway.verified-tokens".
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+    private final Duration maxTtl;
+
+    public VerifiedTokenCache(@Value("${gateway.auth.token-cache.max-size:10000}") long maxSize,
+                              @Value("${gateway.auth.token-cache.max-ttl:30s}") Duration maxTtl,
+                              MeterRegistry meterRegistry) {
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.verified-tokens");
+    }
+
+    /**
+     * Devuelve el token verificado, o null si no está en cache o ya expiró.
+     */
+    public VerifiedToken get(String token) {
+        VerifiedToken verified = cache.getIfPresent(TokenDigest.sha256(token));
+        if (verified != null && verified.isExpired()) {
+            return null;
+        }
+        return verified;
+    }
+
+    public void put(String token, Long userId, long tokenVersion, Instant expiresAt) {
+        cache.put(TokenDigest.sha256(token), new VerifiedToken(userId, tokenVersion, expiresAt));
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(TokenDigest.sha256(token));
+    }
+
+    /**
+     * Invalida por digest, usado cuando llega una revocación desde user-service.
+     */
+    public void invalidateDigest(String digest) {
+        cache.invalidate(digest);
+    }
+
+    /**
+     * Expiración por entrada: min(expiración del token, TTL máximo).
+     */
+    private class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long untilTokenExpiry = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+            return Math.max(0, Math.min(untilTokenExpiry, maxTtl.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.dmh.apigateway.client;
+
+/**
+ * Qué responder cuando user-service no contesta la consulta de blacklist
+ * (timeout, error o circuit breaker abierto).
+ */
+public enum BlacklistFailMode {
+
+    /** Se rechaza el token. Seguro, pero una caída de user-service corta todo el tráfico. */
+    FAIL_CLOSED,
+
+    /**
+     * Se acepta el token si fue emitido hace menos de young-token-max-age
+     * (difícilmente ya tenga logout); los más viejos se rechazan.
+     */
+    FAIL_OPEN_YOUNG_TOKENS,
+
+    /** Se usa la última respuesta obtenida para ese token; si no hay ninguna, se rechaza. */
+    LAST_KNOWN
+}
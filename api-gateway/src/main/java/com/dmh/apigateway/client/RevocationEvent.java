@@ -0,0 +1,12 @@
+package com.dmh.apigateway.client;
+
+/**
+ * Payload de los eventos del feed de revocaciones de user-service.
+ *
+ * - revocation: digest + expiresAt (epoch millis)
+ * - epoch: userId + tokenVersion + expiresAt; los tokens del usuario con versión
+ *   menor quedan revocados (logout en todos lados)
+ * - synced: cursor con el último id enviado en el snapshot
+ */
+public record RevocationEvent(String digest, Long expiresAt, Long cursor, Long userId, Long tokenVersion) {
+}
@@ -0,0 +1,143 @@
+package com.dmh.apigateway.client;
+
+import com.dmh.apigateway.cache.RevokedTokenSet;
+import com.dmh.apigateway.cache.VerifiedTokenCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Suscriptor del feed SSE de revocaciones de user-service.
+ *
+ * En cada conexión (incluidas las reconexiones) pide un resync completo:
+ * acumula el snapshot hasta recibir el evento "synced" y recién ahí reemplaza
+ * el RevokedTokenSet, así ninguna revocación hecha mientras estuvo
+ * desconectado queda afuera. Después aplica cada revocación (o época de
+ * usuario, en un logout en todos lados) en vivo.
+ */
+@Component
+public class RevocationFeedSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationFeedSubscriber.class);
+
+    private static final String FEED_URI = "http://user-service/api/users/internal/token/revocations/stream";
+    private static final String EVENT_REVOCATION = "revocation";
+    private static final String EVENT_EPOCH = "epoch";
+    private static final String EVENT_SYNCED = "synced";
+
+    private final WebClient.Builder webClientBuilder;
+    private final RevokedTokenSet revokedTokenSet;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final boolean enabled;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+
+    private Disposable subscription;
+
+    public RevocationFeedSubscriber(@Qualifier("userServiceWebClientBuilder") WebClient.Builder webClientBuilder,
+                                    RevokedTokenSet revokedTokenSet,
+                                    VerifiedTokenCache verifiedTokenCache,
+                                    @Value("${gateway.auth.revocation-feed.enabled:true}") boolean enabled,
+                                    @Value("${gateway.auth.revocation-feed.min-backoff:1s}") Duration minBackoff,
+                                    @Value("${gateway.auth.revocation-feed.max-backoff:30s}") Duration maxBackoff) {
+        this.webClientBuilder = webClientBuilder;
+        this.revokedTokenSet = revokedTokenSet;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.enabled = enabled;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Revocation feed disabled, blacklist checks will call user-service");
+            return;
+        }
+
+        subscription = Flux.defer(this::connect)
+                .repeatWhen(completed -> completed.delayElements(minBackoff))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, minBackoff)
+                        .maxBackoff(maxBackoff)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> logger.warn("Revocation feed disconnected, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<ServerSentEvent<RevocationEvent>> connect() {
+        Map<String, Long> snapshot = new HashMap<>();
+        Map<Long, RevokedTokenSet.Epoch> epochSnapshot = new HashMap<>();
+        AtomicBoolean synced = new AtomicBoolean(false);
+
+        return webClientBuilder.build()
+                .get()
+                .uri(FEED_URI)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<RevocationEvent>>() {})
+                .doOnNext(event -> handle(event, snapshot, epochSnapshot, synced))
+                .doFinally(signal -> revokedTokenSet.markUnsynced());
+    }
+
+    void handle(ServerSentEvent<RevocationEvent> event, Map<String, Long> snapshot,
+                Map<Long, RevokedTokenSet.Epoch> epochSnapshot, AtomicBoolean synced) {
+        RevocationEvent data = event.data();
+        if (data == null || event.event() == null) {
+            return;  // heartbeat
+        }
+
+        switch (event.event()) {
+            case EVENT_REVOCATION -> {
+                verifiedTokenCache.invalidateDigest(data.digest());
+                if (synced.get()) {
+                    revokedTokenSet.add(data.digest(), data.expiresAt());
+                } else {
+                    snapshot.put(data.digest(), data.expiresAt());
+                }
+            }
+            case EVENT_EPOCH -> {
+                // Los tokens cacheados del usuario se descartan al consultarlos (ver JwtAuthenticationFilter)
+                if (synced.get()) {
+                    revokedTokenSet.addEpoch(data.userId(), data.tokenVersion(), data.expiresAt());
+                } else {
+                    epochSnapshot.merge(data.userId(),
+                            new RevokedTokenSet.Epoch(data.tokenVersion(), data.expiresAt()), RevokedTokenSet.Epoch::merge);
+                }
+            }
+            case EVENT_SYNCED -> {
+                revokedTokenSet.replaceAll(snapshot, epochSnapshot);
+                synced.set(true);
+                logger.info("Revocation feed synced: {} active revocations, {} user epochs (cursor: {})",
+                        snapshot.size(), epochSnapshot.size(), data.cursor());
+                snapshot.clear();
+                epochSnapshot.clear();
+            }
+            default -> logger.debug("Ignoring unknown revocation feed event: {}", event.event());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.dmh.apigateway.client;
+
+import com.dmh.apigateway.cache.RevokedTokenSet;
+import com.dmh.jwt.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consulta si un token fue invalidado (logout).
+ *
+ * - Si el feed de revocaciones está sincronizado, responde desde RevokedTokenSet.
+ * - Si no, llama a user-service. Las llamadas concurrentes para el mismo token
+ *   (single-flight) comparten una única request: el primero la dispara y el
+ *   resto se suscribe al mismo resultado.
+ *
+ * La llamada a user-service tiene timeout y pasa por un circuit breaker
+ * ("token-blacklist"). Si falla o el circuito está abierto, la respuesta
+ * la decide el BlacklistFailMode configurado. En LAST_KNOWN se usa la última
+ * respuesta de user-service para ese token o, si no hay, el contenido de
+ * RevokedTokenSet si se sincronizó por última vez hace menos de last-known.ttl. Usa el pool de conexiones de
+ * user-service, así una degradación de otro servicio no la deja sin conexiones.
+ *
+ * Métricas:
+ * - gateway.blacklist.lookups por outcome: local, downstream (llamadas reales
+ *   a user-service) y coalesced (llamadas ahorradas).
+ * - gateway.blacklist.fallbacks por mode y result (allowed/rejected).
+ * - gateway.blacklist.circuit.transitions por from/to, además de las métricas
+ *   resilience4j.circuitbreaker.* (estado, llamadas y rechazos por circuito abierto).
+ */
+@Component
+public class TokenBlacklistClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistClient.class);
+
+    private static final String VALIDATE_URI = "http://user-service/api/users/token/validate?token={token}";
+    static final String CIRCUIT_BREAKER_NAME = "token-blacklist";
+
+    private final WebClient.Builder webClientBuilder;
+    private final RevokedTokenSet revokedTokenSet;
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    private final CircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final BlacklistFailMode failMode;
+    private final Duration youngTokenMaxAge;
+    private final Cache<String, Boolean> lastKnown;
+    private final Duration lastKnownTtl;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter localLookups;
+    private final Counter downstreamLookups;
+    private final Counter coalescedLookups;
+
+    public TokenBlacklistClient(@Qualifier("userServiceWebClientBuilder") WebClient.Builder webClientBuilder,
+                                RevokedTokenSet revokedTokenSet,
+                                MeterRegistry meterRegistry,
+                                @Value("${gateway.auth.blacklist.timeout:300ms}") Duration timeout,
+                                @Value("${gateway.auth.blacklist.fail-mode:FAIL_CLOSED}") BlacklistFailMode failMode,
+                                @Value("${gateway.auth.blacklist.young-token-max-age:60s}") Duration youngTokenMaxAge,
+                                @Value("${gateway.auth.blacklist.last-known.max-size:10000}") long lastKnownMaxSize,
+                                @Value("${gateway.auth.blacklist.last-known.ttl:10m}") Duration lastKnownTtl,
+                                @Value("${gateway.auth.blacklist.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                @Value("${gateway.auth.blacklist.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+                                @Value("${gateway.auth.blacklist.circuit-breaker.wait-in-open-state:10s}") Duration waitInOpenState) {
+        this.webClientBuilder = webClientBuilder;
+        this.revokedTokenSet = revokedTokenSet;
+        this.timeout = timeout;
+        this.failMode = failMode;
+        this.youngTokenMaxAge = youngTokenMaxAge;
+        this.lastKnownTtl = lastKnownTtl;
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(lastKnownMaxSize)
+                .expireAfterWrite(lastKnownTtl)
+                .build();
+
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(slidingWindowSize, 10))
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+
+        this.meterRegistry = meterRegistry;
+        this.localLookups = lookupCounter(meterRegistry, "local");
+        this.downstreamLookups = lookupCounter(meterRegistry, "downstream");
+        this.coalescedLookups = lookupCounter(meterRegistry, "coalesced");
+        Gauge.builder("gateway.blacklist.in-flight", inFlight, Map::size)
+                .description("Consultas de blacklist en curso hacia user-service")
+                .register(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            logger.warn("⚡ Blacklist circuit breaker: {} -> {}", transition.getFromState(), transition.getToState());
+            Counter.builder("gateway.blacklist.circuit.transitions")
+                    .description("Cambios de estado del circuit breaker de blacklist")
+                    .tag("from", transition.getFromState().name())
+                    .tag("to", transition.getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+        });
+
+        logger.info("🔒 Blacklist lookups: timeout={}, fail mode={}", timeout, failMode);
+    }
+
+    /**
+     * @param issuedAt fecha de emisión del token (claim iat), usada por FAIL_OPEN_YOUNG_TOKENS
+     */
+    public Mono<Boolean> isBlacklisted(String token, Instant issuedAt) {
+        String digest = TokenDigest.sha256(token);
+
+        if (revokedTokenSet.isSynced()) {
+            localLookups.increment();
+            return Mono.just(revokedTokenSet.isRevoked(digest));
+        }
+
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            CompletableFuture<Boolean> shared = inFlight.computeIfAbsent(digest, key -> {
+                leader[0] = true;
+                return fetch(token, digest, issuedAt).toFuture();
+            });
+
+            if (leader[0]) {
+                downstreamLookups.increment();
+                shared.whenComplete((result, error) -> inFlight.remove(digest, shared));
+            } else {
+                coalescedLookups.increment();
+            }
+
+            // suppressCancel: si un suscriptor cancela, el resto sigue esperando el resultado
+            return Mono.fromFuture(shared, true);
+        });
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private Mono<Boolean> fetch(String token, String digest, Instant issuedAt) {
+        return webClientBuilder.build()
+                .get()
+                .uri(VALIDATE_URI, token)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .map(response -> !Boolean.TRUE.equals(response.get("valid")))
+                .timeout(timeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .doOnNext(blacklisted -> lastKnown.put(digest, blacklisted))
+                .onErrorResume(error -> Mono.just(fallback(digest, issuedAt, error)));
+    }
+
+    private boolean fallback(String digest, Instant issuedAt, Throwable error) {
+        boolean blacklisted = switch (failMode) {
+            case FAIL_CLOSED -> true;
+            case FAIL_OPEN_YOUNG_TOKENS -> issuedAt == null
+                    || issuedAt.isBefore(Instant.now().minus(youngTokenMaxAge));
+            case LAST_KNOWN -> {
+                Boolean known = lastKnown.getIfPresent(digest);
+                if (known == null && revokedTokenSet.wasSyncedWithin(lastKnownTtl)) {
+                    known = revokedTokenSet.isRevoked(digest);
+                }
+                yield known == null || known;
+            }
+        };
+
+        logger.error("Error checking blacklist ({}), fail mode {} -> {}",
+                error.toString(), failMode, blacklisted ? "rejected" : "allowed");
+        Counter.builder("gateway.blacklist.fallbacks")
+                .description("Respuestas de blacklist decididas por el fail mode")
+                .tag("mode", failMode.name())
+                .tag("result", blacklisted ? "rejected" : "allowed")
+                .register(meterRegistry)
+                .increment();
+        return blacklisted;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.blacklist.lookups")
+                .description("Consultas de blacklist por origen de la respuesta")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
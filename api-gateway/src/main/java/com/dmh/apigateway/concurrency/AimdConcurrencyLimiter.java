@@ -0,0 +1,88 @@
+package com.dmh.apigateway.concurrency;
+
+import com.dmh.apigateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia AIMD (additive increase, multiplicative decrease)
+ * para una ruta.
+ *
+ * - Admisión: lock-free, se admite mientras in-flight < límite actual.
+ * - Respuesta rápida con el límite casi en uso: límite + 1.
+ * - Respuesta lenta (sobre latency-threshold) o sobrecarga: límite * backoff-ratio.
+ *
+ * Así el límite converge a la concurrencia que el servicio aguanta sin que
+ * crezca la latencia, y lo que excede se rechaza antes de encolarse.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties.Settings settings;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    public AimdConcurrencyLimiter(ConcurrencyLimitProperties.Settings settings) {
+        this.settings = settings;
+        this.latencyThresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.limit = settings.getInitialLimit();
+    }
+
+    /**
+     * @return true si la request se admite; en ese caso hay que llamar a onComplete al terminar
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1.0);
+    }
+
+    /**
+     * Admite solo mientras in-flight no supere la fracción maxShare del límite
+     * (al menos 1). Las clases QoS de menor prioridad usan una fracción menor,
+     * así lo que queda del límite está reservado para las de mayor prioridad.
+     *
+     * @return true si la request se admite; en ese caso hay que llamar a onComplete al terminar
+     */
+    public boolean tryAcquire(double maxShare) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= Math.max(1, (int) (limit * maxShare))) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar y ajusta el límite.
+     *
+     * @param latencyNanos latencia observada de la request
+     * @param overloaded   true si el downstream respondió con error de sobrecarga o timeout
+     */
+    public void onComplete(long latencyNanos, boolean overloaded) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+
+        synchronized (this) {
+            if (overloaded || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+            } else if (inFlightAtCompletion * 2 >= limit) {
+                // Solo crece si el límite se está usando; si no, no hay evidencia de que aguante más
+                limit = Math.min(settings.getMaxLimit(), limit + 1);
+            }
+        }
+    }
+
+    /** Libera el lugar sin ajustar el límite (request cancelada por el cliente). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,55 @@
+package com.dmh.apigateway.concurrency;
+
+import com.dmh.apigateway.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Un AimdConcurrencyLimiter por ruta, creado en el primer uso.
+ *
+ * Métricas por ruta: gateway.concurrency.limit, gateway.concurrency.in-flight
+ * y gateway.concurrency.shed (requests rechazadas con 503).
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AimdConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AimdConcurrencyLimiter limiterFor(String routeId) {
+        return limiters.computeIfAbsent(routeId, this::create);
+    }
+
+    public void recordShed(String routeId) {
+        shedCounters.computeIfAbsent(routeId, id -> Counter.builder("gateway.concurrency.shed")
+                        .description("Requests rechazadas por el límite de concurrencia")
+                        .tag("route", id)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private AimdConcurrencyLimiter create(String routeId) {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(properties.settingsFor(routeId));
+        Gauge.builder("gateway.concurrency.limit", limiter, AimdConcurrencyLimiter::getLimit)
+                .description("Límite de concurrencia actual")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limiter, AimdConcurrencyLimiter::getInFlight)
+                .description("Requests en curso hacia la ruta")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,178 @@
+package com.dmh.apigateway.concurrency;
+
+import com.dmh.apigateway.config.QosProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admisión por clase QoS sobre el AimdConcurrencyLimiter de un limit-group.
+ *
+ * Cada clase entra mientras el grupo no supere su max-share del límite. Si no
+ * hay lugar, la request espera en la cola de su clase hasta max-wait; cada vez
+ * que se libera un lugar se atienden primero las colas de mayor prioridad.
+ * BULK no espera por defecto: es lo primero que se rechaza bajo presión.
+ *
+ * Métricas por clase: gateway.qos.queue.depth (también por group),
+ * gateway.qos.wait (espera de las requests admitidas) y gateway.qos.shed.
+ */
+@Component
+public class QosAdmissionController {
+
+    private final QosProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GroupQueues> groups = new ConcurrentHashMap<>();
+    private final Map<QosClass, Timer> waitTimers = new EnumMap<>(QosClass.class);
+    private final Map<QosClass, Counter> shedCounters = new EnumMap<>(QosClass.class);
+
+    public QosAdmissionController(QosProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (QosClass qosClass : QosClass.values()) {
+            String tag = qosClass.name().toLowerCase();
+            waitTimers.put(qosClass, Timer.builder("gateway.qos.wait")
+                    .description("Espera en cola de las requests admitidas")
+                    .tag("class", tag)
+                    .register(meterRegistry));
+            shedCounters.put(qosClass, Counter.builder("gateway.qos.shed")
+                    .description("Requests rechazadas por clase QoS")
+                    .tag("class", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @return true si la request se admite; en ese caso hay que llamar a onComplete
+     *         (o release) del limiter y después a onRelease
+     */
+    public Mono<Boolean> acquire(String group, AimdConcurrencyLimiter limiter, QosClass qosClass) {
+        QosProperties.Lane lane = properties.laneFor(qosClass);
+        if (limiter.tryAcquire(lane.getMaxShare())) {
+            waitTimers.get(qosClass).record(0, TimeUnit.NANOSECONDS);
+            return Mono.just(true);
+        }
+        if (lane.getMaxWait().isZero() || lane.getMaxQueue() <= 0) {
+            return Mono.just(rejected(qosClass));
+        }
+
+        GroupQueues queues = groups.computeIfAbsent(group, id -> new GroupQueues(id, limiter));
+        Waiter waiter = new Waiter();
+        if (!queues.enqueue(qosClass, waiter, lane.getMaxQueue())) {
+            return Mono.just(rejected(qosClass));
+        }
+        // Por si se liberó un lugar entre el intento y el encolado
+        queues.drain();
+
+        return waiter.sink.asMono()
+                .timeout(lane.getMaxWait(), Mono.defer(() -> {
+                    if (waiter.done.compareAndSet(false, true)) {
+                        queues.remove(qosClass, waiter);
+                        return Mono.just(rejected(qosClass));
+                    }
+                    // Se le asignó un lugar justo al vencer la espera
+                    return waiter.sink.asMono();
+                }))
+                .doOnCancel(() -> {
+                    if (waiter.done.compareAndSet(false, true)) {
+                        queues.remove(qosClass, waiter);
+                    } else {
+                        limiter.release();
+                        queues.drain();
+                    }
+                });
+    }
+
+    /** Atiende las colas del grupo tras liberar un lugar. */
+    public void onRelease(String group) {
+        GroupQueues queues = groups.get(group);
+        if (queues != null) {
+            queues.drain();
+        }
+    }
+
+    int queueDepth(String group, QosClass qosClass) {
+        GroupQueues queues = groups.get(group);
+        return queues == null ? 0 : queues.depths.get(qosClass).get();
+    }
+
+    private boolean rejected(QosClass qosClass) {
+        shedCounters.get(qosClass).increment();
+        return false;
+    }
+
+    private static final class Waiter {
+        final Sinks.One<Boolean> sink = Sinks.one();
+        final AtomicBoolean done = new AtomicBoolean();
+        final long enqueuedAt = System.nanoTime();
+    }
+
+    private final class GroupQueues {
+
+        private final AimdConcurrencyLimiter limiter;
+        private final Map<QosClass, Queue<Waiter>> queues = new EnumMap<>(QosClass.class);
+        private final Map<QosClass, AtomicInteger> depths = new EnumMap<>(QosClass.class);
+
+        GroupQueues(String group, AimdConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+            for (QosClass qosClass : QosClass.values()) {
+                AtomicInteger depth = new AtomicInteger();
+                queues.put(qosClass, new ConcurrentLinkedQueue<>());
+                depths.put(qosClass, depth);
+                Gauge.builder("gateway.qos.queue.depth", depth, AtomicInteger::get)
+                        .description("Requests esperando lugar en el límite de concurrencia")
+                        .tag("group", group)
+                        .tag("class", qosClass.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+        }
+
+        boolean enqueue(QosClass qosClass, Waiter waiter, int maxQueue) {
+            AtomicInteger depth = depths.get(qosClass);
+            if (depth.incrementAndGet() > maxQueue) {
+                depth.decrementAndGet();
+                return false;
+            }
+            queues.get(qosClass).add(waiter);
+            return true;
+        }
+
+        void remove(QosClass qosClass, Waiter waiter) {
+            if (queues.get(qosClass).remove(waiter)) {
+                depths.get(qosClass).decrementAndGet();
+            }
+        }
+
+        void drain() {
+            for (QosClass qosClass : QosClass.values()) {
+                Queue<Waiter> queue = queues.get(qosClass);
+                double maxShare = properties.laneFor(qosClass).getMaxShare();
+                Waiter waiter;
+                while ((waiter = queue.peek()) != null && limiter.tryAcquire(maxShare)) {
+                    if (queue.remove(waiter)) {
+                        depths.get(qosClass).decrementAndGet();
+                        if (waiter.done.compareAndSet(false, true)) {
+                            waitTimers.get(qosClass).record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+                            waiter.sink.tryEmitValue(true);
+                            continue;
+                        }
+                    }
+                    // El waiter ya venció o lo tomó otro drain: se devuelve el lugar
+                    limiter.release();
+                }
+            }
+        }
+    }
+}
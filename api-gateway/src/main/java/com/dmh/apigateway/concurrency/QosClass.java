@@ -0,0 +1,15 @@
+package com.dmh.apigateway.concurrency;
+
+/**
+ * Clases de servicio del gateway, de mayor a menor prioridad.
+ *
+ * - CRITICAL: escrituras y operaciones de dinero (transferencias, depósitos).
+ * - STANDARD: lecturas puntuales.
+ * - BULK: lecturas masivas o de polling (actividad, exports, dashboard);
+ *   son las primeras en recortarse bajo presión.
+ */
+public enum QosClass {
+    CRITICAL,
+    STANDARD,
+    BULK
+}
@@ -0,0 +1,106 @@
+package com.dmh.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Límite de concurrencia adaptativo por ruta (gateway.concurrency-limit en config-repo).
+ *
+ * Las rutas sin configuración propia usan default-limit.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private Settings defaultLimit = new Settings();
+
+    private Map<String, Settings> routes = new HashMap<>();
+
+    public Settings settingsFor(String routeId) {
+        return routeId == null ? defaultLimit : routes.getOrDefault(routeId, defaultLimit);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Settings getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(Settings defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public Map<String, Settings> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Settings> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Parámetros AIMD: el límite sube de a 1 mientras las respuestas llegan por
+     * debajo de latency-threshold y se multiplica por backoff-ratio cuando una
+     * respuesta es lenta o falla por sobrecarga.
+     */
+    public static class Settings {
+
+        private int initialLimit = 50;
+        private int minLimit = 5;
+        private int maxLimit = 500;
+        private double backoffRatio = 0.9;
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.dmh.apigateway.config;
+
+import com.dmh.apigateway.routing.ServiceAwareNettyRoutingFilter;
+import com.dmh.apigateway.routing.ServiceHttpClients;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * Ruteo con un pool de conexiones por servicio (ver ServiceHttpClients).
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    public ServiceAwareNettyRoutingFilter serviceAwareNettyRoutingFilter(HttpClient httpClient,
+                                                                         ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                                         HttpClientProperties properties,
+                                                                         ServiceHttpClients serviceHttpClients) {
+        return new ServiceAwareNettyRoutingFilter(httpClient, headersFilters, properties, serviceHttpClients);
+    }
+}
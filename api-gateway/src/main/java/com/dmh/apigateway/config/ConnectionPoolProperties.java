@@ -0,0 +1,126 @@
+package com.dmh.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pools de conexiones del gateway hacia cada servicio (gateway.connection-pools
+ * en config-repo).
+ *
+ * Cada servicio lb:// tiene su propio pool; los que no tienen configuración
+ * propia usan defaults. Los límites de conexiones son por instancia (dirección
+ * remota), como en reactor-netty.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.connection-pools")
+public class ConnectionPoolProperties {
+
+    private Pool defaults = new Pool();
+
+    private Map<String, Pool> services = new HashMap<>();
+
+    public Pool poolFor(String serviceId) {
+        return services.getOrDefault(serviceId, defaults);
+    }
+
+    public Pool getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Pool defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Pool> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, Pool> services) {
+        this.services = services;
+    }
+
+    /**
+     * Tamaño y tiempos del pool. Con h2c las requests se multiplexan sobre
+     * HTTP/2 sin TLS (el servicio necesita server.http2.enabled) y cada
+     * conexión admite hasta max-concurrent-streams requests a la vez.
+     */
+    public static class Pool {
+
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 100;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private boolean h2c = false;
+        private int maxConcurrentStreams = 100;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public boolean isH2c() {
+            return h2c;
+        }
+
+        public void setH2c(boolean h2c) {
+            this.h2c = h2c;
+        }
+
+        public int getMaxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+            this.maxConcurrentStreams = maxConcurrentStreams;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.dmh.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de GET /api/dashboard (gateway.dashboard en config-repo).
+ *
+ * Cada sección (user, account, transactions, cards) tiene su propio timeout;
+ * las que no lo configuran usan default-timeout.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.dashboard")
+public class DashboardProperties {
+
+    private Duration defaultTimeout = Duration.ofSeconds(1);
+
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /** Cantidad de transacciones incluidas en la sección transactions */
+    private int transactionsLimit = 5;
+
+    public Duration timeoutFor(String section) {
+        return timeouts.getOrDefault(section, defaultTimeout);
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Map<String, Duration> getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Map<String, Duration> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public int getTransactionsLimit() {
+        return transactionsLimit;
+    }
+
+    public void setTransactionsLimit(int transactionsLimit) {
+        this.transactionsLimit = transactionsLimit;
+    }
+}
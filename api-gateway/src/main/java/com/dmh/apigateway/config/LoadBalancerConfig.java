@@ -0,0 +1,18 @@
+package com.dmh.apigateway.config;
+
+import com.dmh.apigateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reemplaza el round-robin por LatencyAwareLoadBalancer en todos los
+ * servicios: rutas lb:// y WebClient @LoadBalanced.
+ *
+ * Se desactiva con gateway.load-balancer.latency-aware=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.load-balancer.latency-aware", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
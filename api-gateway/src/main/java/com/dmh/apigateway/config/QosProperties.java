@@ -0,0 +1,154 @@
+package com.dmh.apigateway.config;
+
+import com.dmh.apigateway.concurrency.QosClass;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Carriles de prioridad sobre el límite de concurrencia (gateway.qos en config-repo).
+ *
+ * Las rutas de un mismo limit-group comparten un AimdConcurrencyLimiter; dentro
+ * del grupo cada clase puede ocupar hasta max-share del límite y esperar hasta
+ * max-wait un lugar libre antes de recibir 503.
+ *
+ * Clasificación: la clase de routes si la ruta la tiene; si no, CRITICAL para
+ * métodos que escriben y STANDARD para GET/HEAD/OPTIONS.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.qos")
+public class QosProperties {
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private boolean enabled = true;
+
+    private Lane critical = new Lane(1.0, Duration.ofMillis(200), 100);
+    private Lane standard = new Lane(0.8, Duration.ofMillis(50), 50);
+    private Lane bulk = new Lane(0.5, Duration.ZERO, 0);
+
+    /** Clase por id de ruta */
+    private Map<String, QosClass> routes = new HashMap<>();
+
+    /** Grupo de límite por id de ruta; las rutas sin grupo tienen el suyo propio */
+    private Map<String, String> limitGroups = new HashMap<>();
+
+    public QosClass classify(String routeId, HttpMethod method) {
+        QosClass routeClass = routes.get(routeId);
+        if (routeClass != null) {
+            return routeClass;
+        }
+        return SAFE_METHODS.contains(method) ? QosClass.STANDARD : QosClass.CRITICAL;
+    }
+
+    public String limitGroupFor(String routeId) {
+        return limitGroups.getOrDefault(routeId, routeId);
+    }
+
+    public Lane laneFor(QosClass qosClass) {
+        return switch (qosClass) {
+            case CRITICAL -> critical;
+            case STANDARD -> standard;
+            case BULK -> bulk;
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Lane getCritical() {
+        return critical;
+    }
+
+    public void setCritical(Lane critical) {
+        this.critical = critical;
+    }
+
+    public Lane getStandard() {
+        return standard;
+    }
+
+    public void setStandard(Lane standard) {
+        this.standard = standard;
+    }
+
+    public Lane getBulk() {
+        return bulk;
+    }
+
+    public void setBulk(Lane bulk) {
+        this.bulk = bulk;
+    }
+
+    public Map<String, QosClass> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, QosClass> routes) {
+        this.routes = routes;
+    }
+
+    public Map<String, String> getLimitGroups() {
+        return limitGroups;
+    }
+
+    public void setLimitGroups(Map<String, String> limitGroups) {
+        this.limitGroups = limitGroups;
+    }
+
+    /**
+     * max-share: fracción del límite del grupo que la clase puede ocupar.
+     * max-wait y max-queue: espera máxima y cantidad de requests esperando
+     * un lugar (0 = se rechaza en el momento).
+     */
+    public static class Lane {
+
+        private double maxShare;
+        private Duration maxWait;
+        private int maxQueue;
+
+        public Lane() {
+            this(1.0, Duration.ZERO, 0);
+        }
+
+        public Lane(double maxShare, Duration maxWait, int maxQueue) {
+            this.maxShare = maxShare;
+            this.maxWait = maxWait;
+            this.maxQueue = maxQueue;
+        }
+
+        public double getMaxShare() {
+            return maxShare;
+        }
+
+        public void setMaxShare(double maxShare) {
+            this.maxShare = maxShare;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+    }
+}
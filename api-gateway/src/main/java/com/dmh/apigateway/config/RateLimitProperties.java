@@ -0,0 +1,109 @@
+package com.dmh.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Límites del rate limiter del gateway (gateway.rate-limit en config-repo).
+ *
+ * Cada ruta puede tener su propio límite (por id de ruta); las que no lo
+ * tienen usan default-limit. El límite aplica por usuario (X-User-Id) o,
+ * en rutas públicas, por IP de origen.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Tiempo sin requests tras el cual se descarta el bucket de un usuario */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Máximo de buckets en memoria */
+    private long maxBuckets = 100_000;
+
+    private Limit defaultLimit = new Limit();
+
+    private Map<String, Limit> routes = new HashMap<>();
+
+    public Limit limitFor(String routeId) {
+        return routeId == null ? defaultLimit : routes.getOrDefault(routeId, defaultLimit);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Limit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Token bucket: replenish-rate tokens por segundo, hasta burst-capacity acumulados.
+     */
+    public static class Limit {
+
+        private double replenishRate = 20;
+        private int burstCapacity = 40;
+
+        public Limit() {
+        }
+
+        public Limit(double replenishRate, int burstCapacity) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+        }
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
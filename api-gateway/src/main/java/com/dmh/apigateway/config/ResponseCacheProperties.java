@@ -0,0 +1,122 @@
+package com.dmh.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache de respuestas del gateway (gateway.response-cache en config-repo).
+ *
+ * - ttl: la respuesta se sirve sin consultar al servicio.
+ * - stale-while-revalidate: pasado el ttl se sirve igual y se refresca en segundo plano.
+ * - stale-if-error: si el servicio falla, se sirve la última respuesta hasta este límite.
+ *
+ * Solo se cachean los GET autenticados cuyo path coincide con paths. scope-pattern
+ * agrupa las entradas por recurso (variable {id}): una escritura exitosa sobre el
+ * scope invalida todas sus entradas.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    private Duration ttl = Duration.ofSeconds(5);
+
+    private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+
+    private Duration staleIfError = Duration.ofMinutes(5);
+
+    /** Memoria máxima ocupada por los cuerpos cacheados */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /** Las respuestas más grandes no se cachean */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    private Duration revalidateTimeout = Duration.ofSeconds(2);
+
+    private List<String> paths = new ArrayList<>();
+
+    private String scopePattern = "/api/accounts/{id}/**";
+
+    /** Tiempo máximo que una entrada puede servirse por alguna de las tres reglas */
+    public Duration maxAge() {
+        return ttl.plus(staleWhileRevalidate.compareTo(staleIfError) > 0 ? staleWhileRevalidate : staleIfError);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public Duration getStaleIfError() {
+        return staleIfError;
+    }
+
+    public void setStaleIfError(Duration staleIfError) {
+        this.staleIfError = staleIfError;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public Duration getRevalidateTimeout() {
+        return revalidateTimeout;
+    }
+
+    public void setRevalidateTimeout(Duration revalidateTimeout) {
+        this.revalidateTimeout = revalidateTimeout;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public String getScopePattern() {
+        return scopePattern;
+    }
+
+    public void setScopePattern(String scopePattern) {
+        this.scopePattern = scopePattern;
+    }
+}
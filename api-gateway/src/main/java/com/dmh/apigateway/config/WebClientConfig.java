@@ -1,8 +1,11 @@
 package com.dmh.apigateway.config;
 
+import com.dmh.apigateway.routing.ServiceHttpClients;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 /**
@@ -20,10 +23,25 @@ public class WebClientConfig {
      * webClient.get().uri("http://user-service/api/users/...")
      * 
      * Eureka resuelve "user-service" a la IP/puerto correspondiente.
+     *
+     * Usa el pool compartido de Reactor Netty: las llamadas a los servicios
+     * propios van por ServiceWebClients, que lo clona con el pool de cada uno.
      */
     @Bean
+    @Primary
     @LoadBalanced
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
+
+    /**
+     * WebClient hacia user-service con el pool de conexiones de ese servicio,
+     * separado del de las demás llamadas (ver ServiceHttpClients).
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder userServiceWebClientBuilder(ServiceHttpClients serviceHttpClients) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(serviceHttpClients.forService("user-service")));
+    }
 }
@@ -0,0 +1,122 @@
+package com.dmh.apigateway.dashboard;
+
+import com.dmh.apigateway.config.DashboardProperties;
+import com.dmh.apigateway.routing.ServiceWebClients;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Arma el dashboard del home con una sola request autenticada.
+ *
+ * - user y account (por userId) se piden en paralelo.
+ * - transactions y cards dependen del id de la cuenta: se piden en paralelo
+ *   apenas llega account.
+ *
+ * Cada sección tiene su timeout; si falla o vence, el resto se devuelve igual
+ * y la sección queda en "errors" (respuesta parcial). Cada llamada usa el pool
+ * de su servicio (ServiceWebClients).
+ */
+@Component
+public class DashboardAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAggregator.class);
+
+    static final String USER = "user";
+    static final String ACCOUNT = "account";
+    static final String TRANSACTIONS = "transactions";
+    static final String CARDS = "cards";
+
+    private final ServiceWebClients serviceWebClients;
+    private final DashboardProperties properties;
+
+    public DashboardAggregator(ServiceWebClients serviceWebClients, DashboardProperties properties) {
+        this.serviceWebClients = serviceWebClients;
+        this.properties = properties;
+    }
+
+    /**
+     * @return secciones en orden: user, account, transactions, cards
+     */
+    public Mono<List<DashboardSection>> aggregate(Long userId) {
+        WebClient userService = serviceWebClients.forService("user-service");
+        WebClient accountService = serviceWebClients.forService("account-service");
+
+        Mono<DashboardSection> user = section(USER, userService, userId,
+                "http://user-service/api/users/{id}", userId);
+        Mono<DashboardSection> account = section(ACCOUNT, accountService, userId,
+                "http://account-service/api/accounts/user/{userId}", userId).cache();
+
+        Mono<DashboardSection> transactions = account.flatMap(accountSection -> withAccountId(accountSection, TRANSACTIONS,
+                accountId -> section(TRANSACTIONS, accountService, userId,
+                        "http://account-service/api/accounts/{id}/transactions?limit={limit}",
+                        accountId, properties.getTransactionsLimit())));
+        Mono<DashboardSection> cards = account.flatMap(accountSection -> withAccountId(accountSection, CARDS,
+                accountId -> section(CARDS, accountService, userId,
+                        "http://account-service/api/accounts/{id}/cards", accountId)));
+
+        return Mono.zip(user, account, transactions, cards)
+                .map(sections -> List.of(sections.getT1(), sections.getT2(), sections.getT3(), sections.getT4()));
+    }
+
+    /**
+     * Cuerpo de la respuesta: una clave por sección con datos y "errors" con
+     * las secciones que no se pudieron obtener.
+     */
+    public static Map<String, Object> toResponseBody(List<DashboardSection> sections) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (DashboardSection section : sections) {
+            body.put(section.name(), section.data());
+            if (!section.isOk()) {
+                errors.put(section.name(), section.error());
+            }
+        }
+        body.put("errors", errors);
+        return body;
+    }
+
+    private Mono<DashboardSection> withAccountId(DashboardSection accountSection, String name,
+                                                 Function<Long, Mono<DashboardSection>> request) {
+        JsonNode id = accountSection.isOk() ? accountSection.data().get("id") : null;
+        if (id == null || !id.canConvertToLong()) {
+            return Mono.just(DashboardSection.failed(name, "account unavailable"));
+        }
+        return request.apply(id.asLong());
+    }
+
+    private Mono<DashboardSection> section(String name, WebClient webClient, Long userId,
+                                           String uri, Object... uriVariables) {
+        return webClient.get()
+                .uri(uri, uriVariables)
+                .header("X-User-Id", userId.toString())
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(data -> DashboardSection.ok(name, data))
+                .timeout(properties.timeoutFor(name))
+                .onErrorResume(error -> {
+                    logger.warn("⚠️ Dashboard section '{}' failed for user {}: {}", name, userId, error.toString());
+                    return Mono.just(DashboardSection.failed(name, describe(error)));
+                });
+    }
+
+    private String describe(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientResponseException responseError) {
+            return "status " + responseError.getStatusCode().value();
+        }
+        return "unavailable";
+    }
+}
@@ -0,0 +1,22 @@
+package com.dmh.apigateway.dashboard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Resultado de una sección del dashboard: los datos del servicio o el motivo
+ * por el que no están (timeout, status del downstream, dependencia faltante).
+ */
+public record DashboardSection(String name, JsonNode data, String error) {
+
+    public static DashboardSection ok(String name, JsonNode data) {
+        return new DashboardSection(name, data, null);
+    }
+
+    public static DashboardSection failed(String name, String error) {
+        return new DashboardSection(name, null, error);
+    }
+
+    public boolean isOk() {
+        return error == null;
+    }
+}
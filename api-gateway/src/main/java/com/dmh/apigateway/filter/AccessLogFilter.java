@@ -0,0 +1,79 @@
+package com.dmh.apigateway.filter;
+
+import com.dmh.apigateway.accesslog.AccessLogWriter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra cada request al terminar (ver AccessLogWriter).
+ *
+ * Corre antes que JwtAuthenticationFilter para incluir también las requests
+ * rechazadas por auth, rate limit o load shedding. No registra headers ni
+ * query string, para no filtrar tokens.
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    /** Status informado cuando el cliente cierra la conexión antes de la respuesta */
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final AccessLogWriter accessLogWriter;
+
+    public AccessLogFilter(AccessLogWriter accessLogWriter) {
+        this.accessLogWriter = accessLogWriter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    int status = status(exchange, signal);
+                    if (accessLogWriter.shouldLog(status)) {
+                        record(exchange, status, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private int status(ServerWebExchange exchange, SignalType signal) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        if (statusCode != null) {
+            return statusCode.value();
+        }
+        return signal == SignalType.CANCEL ? CLIENT_CLOSED_REQUEST : 500;
+    }
+
+    private void record(ServerWebExchange exchange, int status, long latencyNanos) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Long userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE);
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+
+        accessLogWriter.log(
+                request.getMethod().name(),
+                request.getURI().getRawPath(),
+                route != null ? route.getId() : null,
+                status,
+                TimeUnit.NANOSECONDS.toMicros(latencyNanos),
+                userId != null ? userId : -1,
+                remoteAddress != null ? remoteAddress.getHostString() : null);
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de JwtAuthenticationFilter (0)
+        return -1;
+    }
+}
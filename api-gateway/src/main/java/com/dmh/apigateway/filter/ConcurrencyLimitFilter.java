@@ -0,0 +1,117 @@
+package com.dmh.apigateway.filter;
+
+import com.dmh.apigateway.concurrency.AimdConcurrencyLimiter;
+import com.dmh.apigateway.concurrency.ConcurrencyLimiterRegistry;
+import com.dmh.apigateway.concurrency.QosAdmissionController;
+import com.dmh.apigateway.concurrency.QosClass;
+import com.dmh.apigateway.config.ConcurrencyLimitProperties;
+import com.dmh.apigateway.config.QosProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Load shedding por ruta con límite de concurrencia adaptativo.
+ *
+ * Si la ruta ya tiene tantas requests en curso como su límite actual, la
+ * request se rechaza en el momento con 503 en vez de encolarse. El límite
+ * se ajusta con la latencia de cada respuesta (ver AimdConcurrencyLimiter).
+ *
+ * Con gateway.qos habilitado, las rutas de un mismo limit-group comparten el
+ * límite y cada request entra por el carril de su clase (QosAdmissionController):
+ * las escrituras tienen parte del límite reservada y pueden esperar un lugar,
+ * las lecturas masivas se rechazan primero.
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final ConcurrencyLimiterRegistry registry;
+    private final ConcurrencyLimitProperties properties;
+    private final QosAdmissionController qosAdmission;
+    private final QosProperties qosProperties;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiterRegistry registry,
+                                  ConcurrencyLimitProperties properties,
+                                  QosAdmissionController qosAdmission,
+                                  QosProperties qosProperties) {
+        this.registry = registry;
+        this.properties = properties;
+        this.qosAdmission = qosAdmission;
+        this.qosProperties = qosProperties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        boolean qos = qosProperties.isEnabled();
+        String group = qos ? qosProperties.limitGroupFor(routeId) : routeId;
+        AimdConcurrencyLimiter limiter = registry.limiterFor(group);
+
+        QosClass qosClass = qos ? qosProperties.classify(routeId, exchange.getRequest().getMethod()) : null;
+        Mono<Boolean> admission = qos
+                ? qosAdmission.acquire(group, limiter, qosClass)
+                : Mono.fromSupplier(limiter::tryAcquire);
+
+        return admission.flatMap(admitted -> {
+            if (!admitted) {
+                logger.warn("🛑 SHEDDING: route {} ({}) at concurrency limit {} of {}",
+                        routeId, qosClass != null ? qosClass : "no qos", limiter.getLimit(), group);
+                registry.recordShed(routeId);
+                return shed(exchange);
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            limiter.release();
+                        } else {
+                            limiter.onComplete(System.nanoTime() - start,
+                                    signal == SignalType.ON_ERROR || isOverloadStatus(exchange.getResponse().getStatusCode()));
+                        }
+                        if (qos) {
+                            qosAdmission.onRelease(group);
+                        }
+                    });
+        });
+    }
+
+    private boolean isOverloadStatus(HttpStatusCode status) {
+        return status != null && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().add("Content-Type", "application/json");
+
+        String errorBody = String.format("{\"error\":\"%s\",\"message\":\"%s\"}",
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(), "Service overloaded, try again later");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(errorBody.getBytes())));
+    }
+
+    @Override
+    public int getOrder() {
+        // Después de auth (0) y rate limit (1): solo ocupan lugar requests ya admitidas
+        return 2;
+    }
+}
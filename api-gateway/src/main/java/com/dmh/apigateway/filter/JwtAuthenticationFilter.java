@@ -1,6 +1,11 @@
 package com.dmh.apigateway.filter;
 
+import com.dmh.apigateway.cache.RevokedTokenSet;
+import com.dmh.apigateway.cache.VerifiedToken;
+import com.dmh.apigateway.cache.VerifiedTokenCache;
+import com.dmh.apigateway.client.TokenBlacklistClient;
 import com.dmh.apigateway.util.JwtUtil;
+import com.dmh.jwt.VerifiedClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,12 +16,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
@@ -26,11 +30,26 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private WebClient.Builder webClientBuilder;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenBlacklistClient tokenBlacklistClient;
+
+    @Autowired
+    private RevokedTokenSet revokedTokenSet;
+
+    /** Atributo del exchange con el userId autenticado (lo usan los filtros posteriores) */
+    public static final String USER_ID_ATTRIBUTE = "dmh.authenticatedUserId";
+
+    private static final List<String> LOGOUT_ROUTES = List.of(
+            "/api/users/logout",
+            "/api/users/logout-all"
+    );
 
     private static final List<String> PUBLIC_ROUTES = List.of(
             "/api/users/register",
             "/api/users/login",
+            "/api/users/token/refresh",
             "/api/users/token/validate"
     );
 
@@ -38,7 +57,6 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
      * Constructor para verificar que el filtro se inicializa correctamente
      */
     public JwtAuthenticationFilter() {
-        logger.info("=================================================");
         logger.info("🚀 JwtAuthenticationFilter INITIALIZED");
         logger.info("🔒 Public routes: {}", PUBLIC_ROUTES);
     }
@@ -47,81 +65,78 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
-        String method = request.getMethod().name();
-        String host = request.getHeaders().getFirst("Host");
-
-        logger.info("=================================================");
-        logger.info("🔒 JWT Filter - Incoming Request");
-        logger.info("🔒 Method: {}, Path: {}, Host: {}", method, path, host);
-        logger.info("🔒 Full URI: {}", request.getURI());
-        logger.info("🔒 Query: {}", request.getQueryParams());
-        logger.info("🔒 Headers: {}", request.getHeaders());
-
-        boolean isPublic = isPublicRoute(path);
-        logger.info("🔒 Is public route? {}", isPublic);
-        logger.info("🔒 Public routes: {}", PUBLIC_ROUTES);
 
-        if (isPublic) {
-            logger.info("✅ PASSING: Public route, skipping authentication for {}", path);
+        // El detalle por request (método, status, latencia, usuario) lo registra AccessLogFilter
+        if (isPublicRoute(path)) {
             return chain.filter(exchange);
         }
 
-        logger.warn("🚫 REQUIRING AUTH: This path needs JWT validation: {}", path);
-
         String authHeader = request.getHeaders().getFirst("Authorization");
-        logger.info("🔒 Auth header present? {}", authHeader != null);
-
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            logger.error("❌ BLOCKED: Missing or invalid Authorization header for path: {}", path);
+            logger.debug("❌ BLOCKED: Missing or invalid Authorization header for path: {}", path);
             return onError(exchange, "Missing or invalid Authorization header", HttpStatus.UNAUTHORIZED);
         }
 
         String token = authHeader.substring(7);
-        logger.info("🔒 Token extracted (first 20 chars): {}...", token.substring(0, Math.min(20, token.length())));
 
-        if (!jwtUtil.validateToken(token)) {
-            logger.error("❌ BLOCKED: Invalid or expired token for path: {}", path);
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            if (revokedTokenSet.isSuperseded(cached.userId(), cached.tokenVersion())) {
+                verifiedTokenCache.invalidate(token);
+                logger.debug("❌ BLOCKED: Token superseded by logout-all for path: {}", path);
+                return onError(exchange, "Token has been invalidated", HttpStatus.UNAUTHORIZED);
+            }
+            return forwardAuthenticated(exchange, chain, token, cached.userId());
+        }
+
+        Optional<VerifiedClaims> verified = jwtUtil.verify(token);
+        if (verified.isEmpty()) {
+            logger.debug("❌ BLOCKED: Invalid or expired token for path: {}", path);
             return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
         }
 
-        logger.info("✅ TOKEN VALIDATED: Token is valid");
+        VerifiedClaims claims = verified.get();
+        if (revokedTokenSet.isSuperseded(claims.userId(), claims.tokenVersion())) {
+            logger.debug("❌ BLOCKED: Token superseded by logout-all for path: {}", path);
+            return onError(exchange, "Token has been invalidated", HttpStatus.UNAUTHORIZED);
+        }
 
-        return isTokenInBlacklist(token)
+        return tokenBlacklistClient.isBlacklisted(token, claims.issuedAt())
                 .flatMap(isBlacklisted -> {
                     if (isBlacklisted) {
-                        logger.warn("❌ BLOCKED: Token is blacklisted (user logged out) for path: {}", path);
+                        logger.debug("❌ BLOCKED: Token is blacklisted (user logged out) for path: {}", path);
                         return onError(exchange, "Token has been invalidated", HttpStatus.UNAUTHORIZED);
                     }
 
-                    Long userId = jwtUtil.extractUserId(token);
-                    logger.info("✅ ALLOWING: User ID {} validated successfully for path: {}", userId, path);
-
-                    ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                            .header("X-User-Id", userId.toString())
-                            .build();
-
-                    return chain.filter(exchange.mutate().request(modifiedRequest).build());
+                    Long userId = claims.userId();
+                    verifiedTokenCache.put(token, userId, claims.tokenVersion(), claims.expiresAt());
+                    return forwardAuthenticated(exchange, chain, token, userId);
                 });
     }
 
-    private boolean isPublicRoute(String path) {
-        return PUBLIC_ROUTES.stream().anyMatch(path::startsWith);
+    /**
+     * Agrega X-User-Id y continúa la cadena.
+     * En logout se invalida la entrada cacheada una vez que user-service respondió,
+     * para que las siguientes requests vuelvan a consultar la blacklist.
+     */
+    private Mono<Void> forwardAuthenticated(ServerWebExchange exchange, GatewayFilterChain chain,
+                                            String token, Long userId) {
+        exchange.getAttributes().put(USER_ID_ATTRIBUTE, userId);
+        ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
+                .header("X-User-Id", userId.toString())
+                .build();
+
+        Mono<Void> result = chain.filter(exchange.mutate().request(modifiedRequest).build());
+
+        if (LOGOUT_ROUTES.contains(exchange.getRequest().getURI().getPath())) {
+            return result.doFinally(signal -> verifiedTokenCache.invalidate(token));
+        }
+        return result;
     }
 
-    private Mono<Boolean> isTokenInBlacklist(String token) {
-        return webClientBuilder.build()
-                .get()
-                .uri("http://user-service/api/users/token/validate?token=" + token)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .map(response -> {
-                    Boolean isValid = (Boolean) response.get("valid");
-                    return !isValid;
-                })
-                .onErrorResume(error -> {
-                    logger.error("Error checking blacklist for token: {}", error.getMessage());
-                    return Mono.just(true);
-                });
+    private boolean isPublicRoute(String path) {
+        // Coincidencia exacta: /token/validate no debe abrir /token/validate/batch
+        return PUBLIC_ROUTES.contains(path);
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
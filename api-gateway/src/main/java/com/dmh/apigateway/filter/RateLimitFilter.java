@@ -0,0 +1,95 @@
+package com.dmh.apigateway.filter;
+
+import com.dmh.apigateway.config.RateLimitProperties;
+import com.dmh.apigateway.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting por usuario y por ruta.
+ *
+ * Corre después de JwtAuthenticationFilter: en rutas autenticadas la clave es
+ * el userId validado; en rutas públicas (login, register) es la IP de origen.
+ * Al superar el límite responde 429 con Retry-After en segundos.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(TokenBucketRateLimiter rateLimiter,
+                           RateLimitProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        String client = clientKey(exchange);
+
+        long waitNanos = rateLimiter.tryAcquire(routeId + "|" + client, properties.limitFor(routeId));
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        logger.warn("🚦 RATE LIMITED: {} on route {} (retry after {}s)", client, routeId, retryAfterSeconds);
+        Counter.builder("gateway.rate-limit.rejections")
+                .description("Requests rechazadas por rate limit")
+                .tag("route", routeId != null ? routeId : "none")
+                .register(meterRegistry)
+                .increment();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().add("Content-Type", "application/json");
+
+        String errorBody = String.format("{\"error\":\"%s\",\"message\":\"%s\"}",
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(), "Rate limit exceeded");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(errorBody.getBytes())));
+    }
+
+    private String clientKey(ServerWebExchange exchange) {
+        Long userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE);
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (remoteAddress != null ? remoteAddress.getHostString() : "unknown");
+    }
+
+    @Override
+    public int getOrder() {
+        // Después de JwtAuthenticationFilter (0), para conocer el usuario autenticado
+        return 1;
+    }
+}
@@ -0,0 +1,68 @@
+package com.dmh.apigateway.filter.factory;
+
+import com.dmh.apigateway.dashboard.DashboardAggregator;
+import com.dmh.apigateway.dashboard.DashboardSection;
+import com.dmh.apigateway.filter.JwtAuthenticationFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Filtro "Dashboard": responde la ruta en el gateway sin reenviarla.
+ *
+ * La ruta pasa antes por los filtros globales (auth, rate limit, access log),
+ * así el usuario se autentica una sola vez; después se arma la respuesta con
+ * DashboardAggregator. Si ninguna sección se pudo obtener responde 502.
+ *
+ * Uso en config-repo:
+ *   uri: no://op
+ *   filters:
+ *     - Dashboard
+ */
+@Component
+public class DashboardGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private final DashboardAggregator aggregator;
+    private final ObjectMapper objectMapper;
+
+    public DashboardGatewayFilterFactory(DashboardAggregator aggregator, ObjectMapper objectMapper) {
+        super(Object.class);
+        this.aggregator = aggregator;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            Long userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE);
+            ServerHttpResponse response = exchange.getResponse();
+            if (userId == null) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return response.setComplete();
+            }
+
+            return aggregator.aggregate(userId).flatMap(sections -> {
+                boolean anyOk = sections.stream().anyMatch(DashboardSection::isOk);
+                response.setStatusCode(anyOk ? HttpStatus.OK : HttpStatus.BAD_GATEWAY);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(serialize(sections))));
+            });
+        };
+    }
+
+    private byte[] serialize(List<DashboardSection> sections) {
+        try {
+            return objectMapper.writeValueAsBytes(DashboardAggregator.toResponseBody(sections));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize dashboard", e);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.dmh.apigateway.filter.factory;
+
+import com.dmh.apigateway.hedge.HedgeBudget;
+import com.dmh.apigateway.hedge.LatencyPercentileTracker;
+import com.dmh.apigateway.loadbalancer.InstanceStatsLifecycle;
+import com.dmh.apigateway.loadbalancer.LatencyAwareLoadBalancer;
+import com.dmh.apigateway.routing.ServiceHttpClients;
+import com.dmh.apigateway.util.ProxyHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
+/**
+ * Filtro "Hedge": requests en paralelo contra una segunda instancia para
+ * cortar la latencia de cola en rutas de lectura.
+ *
+ * Solo aplica a métodos seguros (GET, HEAD, OPTIONS) de rutas lb:// que lo
+ * declaran explícitamente. El primer intento va a la instancia que elige el
+ * load balancer; si no respondió al llegar el percentil configurado de
+ * latencia de la ruta (acotado entre min-delay y max-delay) y HedgeBudget
+ * tiene crédito, sale un segundo intento a otra instancia. Gana la primera
+ * respuesta completa y la otra se cancela.
+ *
+ * Las respuestas se bufferean completas, por eso solo conviene en rutas de
+ * lectura con cuerpos chicos.
+ *
+ * Ambos intentos salen por el pool del servicio (ServiceHttpClients), igual que
+ * las rutas sin hedging, y respetan el response-timeout de la ruta (metadata o
+ * spring.cloud.gateway.httpclient.response-timeout). Si vencen, responde 504.
+ *
+ * Métricas: gateway.hedge.sent y gateway.hedge.responses por route y winner (primary/hedge).
+ */
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgeGatewayFilterFactory.class);
+
+    /** Antes de ReactiveLoadBalancerClientFilter (10150) y después de los filtros globales propios */
+    static final int ORDER = 10_000;
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final LoadBalancerClientFactory clientFactory;
+    private final ServiceHttpClients serviceHttpClients;
+    private final HttpClientProperties httpClientProperties;
+    private final InstanceStatsLifecycle instanceStats;
+    private final HedgeBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final int windowSize;
+    private final int minSamples;
+
+    private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+    private final Map<String, LatencyPercentileTracker> trackers = new ConcurrentHashMap<>();
+
+    public HedgeGatewayFilterFactory(LoadBalancerClientFactory clientFactory,
+                                     ServiceHttpClients serviceHttpClients,
+                                     HttpClientProperties httpClientProperties,
+                                     InstanceStatsLifecycle instanceStats,
+                                     HedgeBudget budget,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${gateway.hedge.enabled:true}") boolean enabled,
+                                     @Value("${gateway.hedge.percentile:0.95}") double percentile,
+                                     @Value("${gateway.hedge.min-delay:20ms}") Duration minDelay,
+                                     @Value("${gateway.hedge.max-delay:1s}") Duration maxDelay,
+                                     @Value("${gateway.hedge.window-size:1000}") int windowSize,
+                                     @Value("${gateway.hedge.min-samples:50}") int minSamples) {
+        super(Object.class);
+        this.clientFactory = clientFactory;
+        this.serviceHttpClients = serviceHttpClients;
+        this.httpClientProperties = httpClientProperties;
+        this.instanceStats = instanceStats;
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.windowSize = windowSize;
+        this.minSamples = minSamples;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if (!enabled || route == null || !"lb".equals(route.getUri().getScheme())
+                    || !SAFE_METHODS.contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+
+            ReactiveLoadBalancer<ServiceInstance> loadBalancer = clientFactory.getInstance(route.getUri().getHost());
+            if (loadBalancer == null) {
+                return chain.filter(exchange);
+            }
+            return hedged(exchange, route, loadBalancer);
+        }, ORDER);
+    }
+
+    private Mono<Void> hedged(ServerWebExchange exchange, Route route,
+                              ReactiveLoadBalancer<ServiceInstance> loadBalancer) {
+        String serviceId = route.getUri().getHost();
+        LatencyPercentileTracker tracker = trackers.computeIfAbsent(route.getId(),
+                id -> new LatencyPercentileTracker(windowSize, percentile, minSamples));
+        WebClient webClient = webClients.computeIfAbsent(serviceId, id -> WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(serviceHttpClients.forService(id)))
+                .build());
+        Duration responseTimeout = responseTimeout(route);
+        budget.onRequest();
+
+        return Mono.from(loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(new RequestData(exchange.getRequest())))))
+                .flatMap(chosen -> {
+                    if (!chosen.hasServer()) {
+                        return Mono.error(NotFoundException.create(true, "Unable to find instance for " + serviceId));
+                    }
+                    ServiceInstance primary = chosen.getServer();
+
+                    Mono<Attempt> first = attempt(webClient, responseTimeout, exchange, primary, tracker, false);
+                    Mono<Attempt> second = Mono.delay(Duration.ofNanos(hedgeDelay(tracker)))
+                            .filter(tick -> budget.tryAcquire())
+                            .flatMap(tick -> otherInstance(serviceId, loadBalancer, primary))
+                            .flatMap(instance -> {
+                                sentCounter(route.getId()).increment();
+                                return attempt(webClient, responseTimeout, exchange, instance, tracker, true);
+                            });
+
+                    return Mono.firstWithValue(first, second);
+                })
+                .flatMap(winner -> {
+                    responsesCounter(route.getId(), winner.hedge() ? "hedge" : "primary").increment();
+                    return writeResponse(exchange, winner.response());
+                })
+                .onErrorResume(error -> !(error instanceof NotFoundException), error -> {
+                    logger.warn("⚠️ Hedged request to {} failed: {}", serviceId, error.toString());
+                    exchange.getResponse().setStatusCode(timedOut(error) ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    /**
+     * Mismo criterio que NettyRoutingFilter: metadata de la ruta (negativo
+     * desactiva el timeout) o el valor global del httpclient.
+     */
+    private Duration responseTimeout(Route route) {
+        Object routeTimeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+        if (routeTimeout instanceof Number millis) {
+            return millis.longValue() >= 0 ? Duration.ofMillis(millis.longValue()) : null;
+        }
+        return httpClientProperties.getResponseTimeout();
+    }
+
+    /**
+     * Mono.firstWithValue agrupa los errores de ambos intentos como suppressed.
+     */
+    private static boolean timedOut(Throwable error) {
+        if (error == null) {
+            return false;
+        }
+        if (error instanceof ReadTimeoutException) {
+            return true;
+        }
+        for (Throwable suppressed : error.getSuppressed()) {
+            if (timedOut(suppressed)) {
+                return true;
+            }
+        }
+        return error.getCause() != error && timedOut(error.getCause());
+    }
+
+    private long hedgeDelay(LatencyPercentileTracker tracker) {
+        long observed = tracker.percentileNanos();
+        if (observed < 0) {
+            return maxDelayNanos;
+        }
+        return Math.min(maxDelayNanos, Math.max(minDelayNanos, observed));
+    }
+
+    private Mono<ServiceInstance> otherInstance(String serviceId,
+                                                ReactiveLoadBalancer<ServiceInstance> loadBalancer,
+                                                ServiceInstance primary) {
+        ServiceInstanceListSupplier supplier = clientFactory.getInstance(serviceId, ServiceInstanceListSupplier.class);
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        return supplier.get().next().flatMap(instances -> {
+            List<ServiceInstance> others = instances.stream()
+                    .filter(instance -> !sameInstance(instance, primary))
+                    .toList();
+            if (others.isEmpty()) {
+                return Mono.empty();
+            }
+            Response<ServiceInstance> chosen = loadBalancer instanceof LatencyAwareLoadBalancer latencyAware
+                    ? latencyAware.chooseFrom(others)
+                    : new DefaultResponse(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+            return chosen.hasServer() ? Mono.just(chosen.getServer()) : Mono.empty();
+        });
+    }
+
+    private Mono<Attempt> attempt(WebClient webClient, Duration responseTimeout,
+                                  ServerWebExchange exchange, ServiceInstance instance,
+                                  LatencyPercentileTracker tracker, boolean hedge) {
+        ServerHttpRequest request = exchange.getRequest();
+        URI uri = UriComponentsBuilder.fromUri(instance.getUri())
+                .path(request.getURI().getRawPath())
+                .query(request.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+        Object requestKey = new Object();
+
+        return Mono.defer(() -> {
+            instanceStats.begin(instance, requestKey);
+            long start = System.nanoTime();
+            return webClient.method(request.getMethod())
+                    .uri(uri)
+                    .headers(headers -> ProxyHeaders.copyEndToEnd(request.getHeaders(), headers))
+                    .httpRequest(httpRequest -> {
+                        if (responseTimeout != null) {
+                            httpRequest.<HttpClientRequest>getNativeRequest().responseTimeout(responseTimeout);
+                        }
+                    })
+                    .exchangeToMono(response -> response.toEntity(byte[].class))
+                    .doOnNext(response -> {
+                        tracker.record(System.nanoTime() - start);
+                        instanceStats.end(instance, requestKey, response.getStatusCode().is5xxServerError());
+                    })
+                    .doOnError(error -> instanceStats.end(instance, requestKey, true))
+                    .doOnCancel(() -> instanceStats.abandon(instance, requestKey))
+                    .map(response -> new Attempt(response, hedge));
+        });
+    }
+
+    private Mono<Void> writeResponse(ServerWebExchange exchange, ResponseEntity<byte[]> upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstream.getStatusCode());
+        ProxyHeaders.copyEndToEnd(upstream.getHeaders(), response.getHeaders());
+
+        byte[] body = upstream.getBody();
+        if (body == null || exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        return a.getHost().equals(b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    private Counter sentCounter(String routeId) {
+        return Counter.builder("gateway.hedge.sent")
+                .description("Segundos intentos enviados")
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    private Counter responsesCounter(String routeId, String winner) {
+        return Counter.builder("gateway.hedge.responses")
+                .description("Respuestas de rutas con hedging según qué intento ganó")
+                .tag("route", routeId)
+                .tag("winner", winner)
+                .register(meterRegistry);
+    }
+
+    private record Attempt(ResponseEntity<byte[]> response, boolean hedge) {
+    }
+}
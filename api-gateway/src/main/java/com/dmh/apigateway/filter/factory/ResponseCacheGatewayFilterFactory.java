@@ -0,0 +1,273 @@
+package com.dmh.apigateway.filter.factory;
+
+import com.dmh.apigateway.cache.CachedResponse;
+import com.dmh.apigateway.cache.ResponseCache;
+import com.dmh.apigateway.config.ResponseCacheProperties;
+import com.dmh.apigateway.filter.JwtAuthenticationFilter;
+import com.dmh.apigateway.routing.ServiceWebClients;
+import com.dmh.apigateway.util.ProxyHeaders;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro "ResponseCache": cache por usuario con stale-while-revalidate y
+ * stale-if-error para las lecturas configuradas en gateway.response-cache.paths.
+ *
+ * - GET cacheable con entrada fresca: se responde desde memoria (X-Cache: HIT).
+ * - Entrada vencida dentro de stale-while-revalidate: se responde la copia
+ *   (X-Cache: STALE) y se refresca en segundo plano, una sola vez por clave.
+ * - Sin entrada, o más vieja: se consulta al servicio (X-Cache: MISS). Si
+ *   falla o responde 5xx y hay una copia dentro de stale-if-error, se usa esa.
+ * - Cualquier otro método sobre el mismo scope (PATCH de la cuenta, alta o
+ *   baja de tarjetas, transferencias, depósitos) invalida sus entradas, y
+ *   también las de las cuentas que el servicio informe en X-Affected-Accounts
+ *   (el destinatario de una transferencia). El header no llega al cliente.
+ *
+ * La revalidación sale por el WebClient @LoadBalanced del servicio de la ruta
+ * (con su pool, ver ServiceWebClients), así que el filtro está pensado para
+ * rutas lb://.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+
+    /** Antes de Hedge (10000): un hit no genera intentos hacia el servicio */
+    static final int ORDER = 9_000;
+
+    private static final String CACHE_HEADER = "X-Cache";
+
+    static final String AFFECTED_ACCOUNTS_HEADER = "X-Affected-Accounts";
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+    private final ServiceWebClients serviceWebClients;
+    private final Map<String, Boolean> revalidating = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache,
+                                             ResponseCacheProperties properties,
+                                             ServiceWebClients serviceWebClients) {
+        super(Object.class);
+        this.responseCache = responseCache;
+        this.properties = properties;
+        this.serviceWebClients = serviceWebClients;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getURI().getRawPath();
+            String scope = properties.isEnabled() ? responseCache.scopeOf(path) : null;
+            if (scope == null) {
+                return chain.filter(exchange);
+            }
+
+            if (!SAFE_METHODS.contains(request.getMethod())) {
+                ServerHttpResponse response = exchange.getResponse();
+                response.beforeCommit(() -> {
+                    invalidateAffected(response.getHeaders());
+                    return Mono.empty();
+                });
+                // Se invalida al terminar aunque haya fallado: la escritura pudo aplicarse igual
+                return chain.filter(exchange).doFinally(signal -> responseCache.invalidate(scope));
+            }
+
+            Long userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE);
+            if (request.getMethod() != HttpMethod.GET || userId == null || !responseCache.isCacheable(path)) {
+                return chain.filter(exchange);
+            }
+
+            String key = userId + "|" + request.getURI().getRawPath()
+                    + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+            long version = responseCache.version(scope);
+            ResponseCache.Lookup cached = responseCache.lookup(scope, key);
+
+            if (cached != null && cached.freshness() == ResponseCache.Freshness.FRESH) {
+                responseCache.recordRequest("hit");
+                return writeCached(exchange.getResponse(), cached.response(), "HIT");
+            }
+            if (cached != null && cached.freshness() == ResponseCache.Freshness.STALE) {
+                responseCache.recordRequest("stale");
+                revalidate(exchange, scope, version, key);
+                return writeCached(exchange.getResponse(), cached.response(), "STALE");
+            }
+
+            responseCache.recordRequest("miss");
+            CachedResponse fallback = cached != null ? cached.response() : null;
+            ServerHttpResponse original = exchange.getResponse();
+            ServerHttpResponse caching = new CachingResponse(original, scope, version, key, fallback);
+            return chain.filter(exchange.mutate().response(caching).build())
+                    .onErrorResume(error -> fallback != null && !original.isCommitted(), error -> {
+                        logger.warn("🗄️ Serving stale {} after error: {}", path, error.toString());
+                        responseCache.recordRequest("stale_if_error");
+                        return writeCached(original, fallback, "STALE");
+                    });
+        }, ORDER);
+    }
+
+    private void invalidateAffected(HttpHeaders headers) {
+        List<String> affected = headers.get(AFFECTED_ACCOUNTS_HEADER);
+        if (affected == null) {
+            return;
+        }
+        for (String value : affected) {
+            for (String scope : value.split(",")) {
+                if (!scope.isBlank()) {
+                    responseCache.invalidate(scope.trim());
+                }
+            }
+        }
+        headers.remove(AFFECTED_ACCOUNTS_HEADER);
+    }
+
+    private void revalidate(ServerWebExchange exchange, String scope, long version, String key) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || revalidating.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        URI uri = UriComponentsBuilder.newInstance()
+                .scheme("http")
+                .host(route.getUri().getHost())
+                .path(request.getURI().getRawPath())
+                .query(request.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+
+        serviceWebClients.forService(route.getUri().getHost())
+                .get()
+                .uri(uri)
+                .headers(headers -> ProxyHeaders.copyEndToEnd(request.getHeaders(), headers))
+                .exchangeToMono(response -> response.statusCode().value() == HttpStatus.OK.value()
+                        ? response.toEntity(byte[].class)
+                        : response.releaseBody().then(Mono.empty()))
+                .timeout(properties.getRevalidateTimeout())
+                .doFinally(signal -> revalidating.remove(key))
+                .subscribe(
+                        entity -> {
+                            if (entity.getBody() != null && isStorable(entity.getHeaders())) {
+                                responseCache.store(scope, version, key,
+                                        responseCache.newResponse(storedHeaders(entity.getHeaders()), entity.getBody()));
+                            }
+                        },
+                        error -> logger.debug("Revalidation of {} failed: {}", uri, error.toString()));
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, CachedResponse cached, String result) {
+        response.setStatusCode(HttpStatus.OK);
+        HttpHeaders headers = response.getHeaders();
+        headers.clear();
+        headers.putAll(cached.headers());
+        headers.set(CACHE_HEADER, result);
+        headers.set(HttpHeaders.AGE, String.valueOf(
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.storedAtNanos())));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean isStorable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !cacheControl.contains("no-store");
+    }
+
+    private static HttpHeaders storedHeaders(HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        ProxyHeaders.copyEndToEnd(upstream, headers);
+        headers.remove(HttpHeaders.SET_COOKIE);
+        headers.remove(CACHE_HEADER);
+        // El cliente no debe cachear por su cuenta una respuesta por usuario
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Captura el cuerpo de un 200 para guardarlo, o lo reemplaza por la copia
+     * stale si el servicio respondió 5xx. Cubre también las respuestas sin
+     * cuerpo (setComplete), como el 502/504 que arma Hedge cuando fallan los intentos.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String scope;
+        private final long version;
+        private final String key;
+        private final CachedResponse fallback;
+
+        CachingResponse(ServerHttpResponse delegate, String scope, long version, String key, CachedResponse fallback) {
+            super(delegate);
+            this.scope = scope;
+            this.version = version;
+            this.key = key;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (servesFallback()) {
+                responseCache.recordRequest("stale_if_error");
+                return writeCached(getDelegate(), fallback, "STALE");
+            }
+            return super.setComplete();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (servesFallback()) {
+                responseCache.recordRequest("stale_if_error");
+                return Flux.from(body)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> writeCached(getDelegate(), fallback, "STALE")));
+            }
+            if (status == null || status.value() != HttpStatus.OK.value() || !isStorable(getHeaders())) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                responseCache.store(scope, version, key, responseCache.newResponse(storedHeaders(getHeaders()), bytes));
+                getHeaders().set(CACHE_HEADER, "MISS");
+                getHeaders().setCacheControl(CacheControl.noCache().cachePrivate());
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private boolean servesFallback() {
+            HttpStatusCode status = getStatusCode();
+            return status != null && status.is5xxServerError() && fallback != null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.dmh.apigateway.filter.factory;
+
+import com.dmh.apigateway.shadow.ShadowMirror;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro "Shadow": espeja una muestra de los GET de la ruta a otro servicio
+ * de Eureka (p. ej. un build candidato registrado como account-service-shadow)
+ * y compara latencia, status y hash del cuerpo (ver ShadowMirror).
+ *
+ * <pre>
+ * - Shadow=account-service-shadow, 0.05
+ * </pre>
+ *
+ * La respuesta al cliente es siempre la del servicio real; el hash se
+ * calcula sobre los buffers a medida que se escriben, sin copiarlos.
+ */
+@Component
+public class ShadowGatewayFilterFactory extends AbstractGatewayFilterFactory<ShadowGatewayFilterFactory.Config> {
+
+    /** Después de ResponseCache (9000): solo se espeja lo que llega al servicio */
+    static final int ORDER = 9_500;
+
+    private final ShadowMirror shadowMirror;
+
+    public ShadowGatewayFilterFactory(ShadowMirror shadowMirror) {
+        super(Config.class);
+        this.shadowMirror = shadowMirror;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("service", "sampleRate");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if (route == null || config.getService() == null
+                    || exchange.getRequest().getMethod() != HttpMethod.GET
+                    || ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+                return chain.filter(exchange);
+            }
+
+            String routeId = route.getId();
+            Sinks.One<ShadowMirror.Result> primary = Sinks.one();
+            ServerHttpResponse recording = new RecordingResponse(exchange.getResponse(), routeId, primary);
+            shadowMirror.mirror(routeId, config.getService(), exchange.getRequest(), primary.asMono());
+
+            return chain.filter(exchange.mutate().response(recording).build())
+                    .doFinally(signal -> primary.tryEmitEmpty());
+        }, ORDER);
+    }
+
+    /**
+     * Calcula el hash del cuerpo de la respuesta real mientras se escribe y
+     * publica el resultado al terminar.
+     */
+    private class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private final String routeId;
+        private final Sinks.One<ShadowMirror.Result> result;
+        private final long start = System.nanoTime();
+
+        RecordingResponse(ServerHttpResponse delegate, String routeId, Sinks.One<ShadowMirror.Result> result) {
+            super(delegate);
+            this.routeId = routeId;
+            this.result = result;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            MessageDigest digest = ShadowMirror.sha256();
+            Flux<? extends DataBuffer> hashed = Flux.from(body)
+                    .doOnNext(buffer -> ShadowMirror.update(digest, buffer))
+                    .doOnComplete(() -> publish(digest.digest()));
+            return super.writeWith(hashed);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return super.setComplete().doOnSuccess(done -> publish(ShadowMirror.sha256().digest()));
+        }
+
+        private void publish(byte[] bodyHash) {
+            HttpStatusCode status = getStatusCode();
+            ShadowMirror.Result primary = new ShadowMirror.Result(
+                    status != null ? status.value() : 200, bodyHash, System.nanoTime() - start);
+            if (result.tryEmitValue(primary).isSuccess()) {
+                shadowMirror.recordPrimary(routeId, primary);
+            }
+        }
+    }
+
+    public static class Config {
+
+        /** Service id en Eureka que recibe las copias */
+        private String service;
+
+        /** Fracción de los GET que se espejan */
+        private double sampleRate = 0.01;
+
+        public String getService() {
+            return service;
+        }
+
+        public void setService(String service) {
+            this.service = service;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+}
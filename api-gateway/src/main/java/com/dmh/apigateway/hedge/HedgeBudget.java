@@ -0,0 +1,53 @@
+package com.dmh.apigateway.hedge;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto global de hedging, compartido por todas las rutas.
+ *
+ * Cada request hedgeable deposita budget-percent/100 créditos y cada
+ * segundo intento consume uno, así los hedges nunca superan ese porcentaje
+ * del tráfico (más un pequeño burst acumulado de max-credits). Si el
+ * downstream se degrada entero, el presupuesto se agota y no se multiplica
+ * la carga.
+ */
+@Component
+public class HedgeBudget {
+
+    private static final long CREDIT = 1_000;
+
+    private final AtomicLong balance = new AtomicLong();
+    private final long depositPerRequest;
+    private final long maxBalance;
+
+    public HedgeBudget(@Value("${gateway.hedge.budget-percent:10}") double budgetPercent,
+                       @Value("${gateway.hedge.max-credits:20}") int maxCredits,
+                       MeterRegistry meterRegistry) {
+        this.depositPerRequest = Math.round(CREDIT * budgetPercent / 100);
+        this.maxBalance = maxCredits * CREDIT;
+        Gauge.builder("gateway.hedge.budget", balance, credits -> (double) credits.get() / CREDIT)
+                .description("Créditos disponibles para hedging")
+                .register(meterRegistry);
+    }
+
+    public void onRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < CREDIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - CREDIT)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.dmh.apigateway.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Percentil de latencia sobre las últimas N respuestas de una ruta.
+ *
+ * Las muestras van a un buffer circular sin locks; el percentil se recalcula
+ * cada N/10 muestras (ordenando una copia) y se sirve cacheado.
+ * Mientras no haya suficientes muestras devuelve -1.
+ */
+public class LatencyPercentileTracker {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private final int minSamples;
+    private final int recomputeEvery;
+    private volatile long cachedNanos = -1;
+
+    public LatencyPercentileTracker(int windowSize, double percentile, int minSamples) {
+        this.samples = new AtomicLongArray(windowSize);
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.recomputeEvery = Math.max(1, windowSize / 10);
+    }
+
+    public void record(long latencyNanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), latencyNanos);
+        long total = n + 1;
+        if (total == minSamples || (total > minSamples && total % recomputeEvery == 0)) {
+            recompute(total);
+        }
+    }
+
+    public long percentileNanos() {
+        return cachedNanos;
+    }
+
+    private void recompute(long total) {
+        int size = (int) Math.min(total, samples.length());
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        cachedNanos = copy[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+    }
+}
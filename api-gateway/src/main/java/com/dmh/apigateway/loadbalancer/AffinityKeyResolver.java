@@ -0,0 +1,83 @@
+package com.dmh.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+/**
+ * Clave de afinidad para el ruteo por hashing consistente
+ * (gateway.load-balancer.affinity en config-repo).
+ *
+ * - /api/accounts/user/{userId}/** -> el usuario.
+ * - /api/accounts/{id}/** -> la cuenta.
+ * - Cualquier otra request autenticada -> el usuario (X-User-Id, que pone
+ *   JwtAuthenticationFilter después de validar el token).
+ *
+ * Solo aplica a los servicios listados; el resto sigue con power of two choices.
+ */
+@Component
+public class AffinityKeyResolver {
+
+    private static final PathPattern USER_PATH = PathPatternParser.defaultInstance.parse("/api/accounts/user/{userId}/**");
+    private static final PathPattern ACCOUNT_PATH = PathPatternParser.defaultInstance.parse("/api/accounts/{id}/**");
+
+    private final boolean enabled;
+    private final List<String> services;
+    private final int virtualNodes;
+    private final double loadFactor;
+
+    public AffinityKeyResolver(@Value("${gateway.load-balancer.affinity.enabled:false}") boolean enabled,
+                               @Value("${gateway.load-balancer.affinity.services:account-service}") List<String> services,
+                               @Value("${gateway.load-balancer.affinity.virtual-nodes:160}") int virtualNodes,
+                               @Value("${gateway.load-balancer.affinity.load-factor:1.25}") double loadFactor) {
+        this.enabled = enabled;
+        this.services = services;
+        this.virtualNodes = virtualNodes;
+        this.loadFactor = loadFactor;
+    }
+
+    /**
+     * @return la clave, o null si la request no tiene afinidad
+     */
+    public String keyFor(String serviceId, Request<?> request) {
+        if (!enabled || !services.contains(serviceId)
+                || request == null || !(request.getContext() instanceof RequestDataContext context)) {
+            return null;
+        }
+        RequestData data = context.getClientRequest();
+        if (data == null) {
+            return null;
+        }
+
+        if (data.getUrl() != null) {
+            PathContainer path = PathContainer.parsePath(data.getUrl().getRawPath());
+            PathPattern.PathMatchInfo user = USER_PATH.matchAndExtract(path);
+            if (user != null) {
+                return "user:" + user.getUriVariables().get("userId");
+            }
+            PathPattern.PathMatchInfo account = ACCOUNT_PATH.matchAndExtract(path);
+            if (account != null) {
+                return "account:" + account.getUriVariables().get("id");
+            }
+        }
+
+        String userId = data.getHeaders() != null ? data.getHeaders().getFirst("X-User-Id") : null;
+        return userId != null ? "user:" + userId : null;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /** Una instancia no recibe más de load-factor veces el promedio de requests en curso */
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+}
@@ -0,0 +1,110 @@
+package com.dmh.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Anillo de hashing consistente sobre las instancias de un servicio.
+ *
+ * Cada instancia ocupa virtual-nodes puntos del anillo; una clave se asigna a
+ * la primera instancia en sentido horario desde su hash. Cuando entra o sale
+ * una instancia solo cambian de dueño las claves de sus puntos (~1/N del total).
+ *
+ * Inmutable: se reconstruye cuando cambia la lista de instancias.
+ */
+final class ConsistentHashRing {
+
+    private final long[] points;
+    private final ServiceInstance[] owners;
+    private final Set<String> members;
+
+    ConsistentHashRing(List<ServiceInstance> instances, int virtualNodes) {
+        record Point(long hash, ServiceInstance owner) {
+        }
+
+        Point[] ring = instances.stream()
+                .flatMap(instance -> {
+                    String nodeId = nodeId(instance);
+                    return IntStream.range(0, virtualNodes)
+                            .mapToObj(i -> new Point(hash(nodeId + "#" + i), instance));
+                })
+                .sorted(Comparator.comparingLong(Point::hash))
+                .toArray(Point[]::new);
+
+        this.points = new long[ring.length];
+        this.owners = new ServiceInstance[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i].hash();
+            owners[i] = ring[i].owner();
+        }
+        this.members = instances.stream().map(ConsistentHashRing::nodeId).collect(Collectors.toUnmodifiableSet());
+    }
+
+    boolean hasMembers(List<ServiceInstance> instances) {
+        if (instances.size() != members.size()) {
+            return false;
+        }
+        for (ServiceInstance instance : instances) {
+            if (!members.contains(nodeId(instance))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recorre el anillo desde la clave y devuelve la primera instancia que
+     * cumple eligible, o null si ninguna.
+     */
+    ServiceInstance locate(String key, Predicate<ServiceInstance> eligible) {
+        if (points.length == 0) {
+            return null;
+        }
+        int start = Arrays.binarySearch(points, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+
+        Set<String> rejected = new HashSet<>();
+        for (int i = 0; i < points.length && rejected.size() < members.size(); i++) {
+            ServiceInstance owner = owners[(start + i) % points.length];
+            String nodeId = nodeId(owner);
+            if (rejected.contains(nodeId)) {
+                continue;
+            }
+            if (eligible.test(owner)) {
+                return owner;
+            }
+            rejected.add(nodeId);
+        }
+        return null;
+    }
+
+    static String nodeId(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    /** FNV-1a de 64 bits con el mezclado final de MurmurHash3 para repartir mejor los puntos */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,147 @@
+package com.dmh.apigateway.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas de una instancia de un servicio: requests en curso y
+ * latencia "peak EWMA".
+ *
+ * La EWMA decae con el tiempo entre muestras (decay-time) y salta de golpe
+ * ante una muestra más lenta que el promedio, así una instancia que se pone
+ * lenta deja de recibir tráfico enseguida y lo recupera gradualmente.
+ *
+ * Las requests en curso se guardan por identidad del Request del load
+ * balancer, con expiración: si una request se cancela y nunca se informa
+ * su fin, deja de contar al vencer max-request-age.
+ *
+ * También guarda el estado de expulsión que maneja OutlierDetector.
+ */
+public class InstanceStats {
+
+    /** Latencia mínima usada en el costo, para que una instancia sin muestras no absorba todo */
+    private static final long MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String serviceId;
+    private final String instance;
+    private final long decayNanos;
+    private final Cache<Object, Long> inFlight;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private double ewmaNanos;
+    private long lastSampleNanos;
+
+    final AtomicInteger consecutiveErrors = new AtomicInteger();
+    final AtomicInteger consecutiveSlow = new AtomicInteger();
+    private final LongAdder ejections = new LongAdder();
+    private volatile long ejectedUntilNanos;
+    private int ejectionStreak;
+    private long lastEjectionNanos;
+
+    public InstanceStats(String serviceId, String instance, Duration decayTime, Duration maxRequestAge) {
+        this.serviceId = serviceId;
+        this.instance = instance;
+        this.decayNanos = decayTime.toNanos();
+        this.inFlight = Caffeine.newBuilder()
+                .weakKeys()
+                .expireAfterWrite(maxRequestAge)
+                .build();
+    }
+
+    public void onStart(Object request, long nowNanos) {
+        inFlight.put(request, nowNanos);
+        requests.increment();
+    }
+
+    /**
+     * @return momento de inicio de la request, o null si no estaba registrada (o expiró)
+     */
+    public Long onComplete(Object request) {
+        return inFlight.asMap().remove(request);
+    }
+
+    public synchronized void recordLatency(long latencyNanos, long nowNanos) {
+        if (lastSampleNanos == 0 || latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(double) (nowNanos - lastSampleNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastSampleNanos = nowNanos;
+    }
+
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Costo estimado de mandarle una request más: latencia esperada por la
+     * cola que ya tiene (requests en curso + la nueva).
+     */
+    public double cost() {
+        return Math.max(getEwmaNanos(), MIN_LATENCY_NANOS) * (getOutstanding() + 1);
+    }
+
+    /**
+     * Expulsa la instancia hasta ejectedUntil.
+     *
+     * @return cuántas expulsiones seguidas lleva (para el backoff)
+     */
+    synchronized int eject(long nowNanos, long streakResetNanos) {
+        if (lastEjectionNanos != 0 && nowNanos - lastEjectionNanos > streakResetNanos) {
+            ejectionStreak = 0;
+        }
+        ejectionStreak++;
+        lastEjectionNanos = nowNanos;
+        ejections.increment();
+        consecutiveErrors.set(0);
+        consecutiveSlow.set(0);
+        return ejectionStreak;
+    }
+
+    void setEjectedUntilNanos(long ejectedUntilNanos) {
+        this.ejectedUntilNanos = ejectedUntilNanos;
+    }
+
+    long getEjectedUntilNanos() {
+        return ejectedUntilNanos;
+    }
+
+    public boolean isEjected(long nowNanos) {
+        return ejectedUntilNanos - nowNanos > 0;
+    }
+
+    public long getEjections() {
+        return ejections.sum();
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public int getOutstanding() {
+        return inFlight.asMap().size();
+    }
+
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
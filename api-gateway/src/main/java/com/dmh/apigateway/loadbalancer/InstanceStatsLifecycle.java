@@ -0,0 +1,101 @@
+package com.dmh.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Alimenta InstanceStatsRegistry con cada request balanceada, tanto de las
+ * rutas lb:// del gateway como del WebClient @LoadBalanced.
+ *
+ * Un error de conexión o un 5xx cuenta como falla y se registra con
+ * latencia failure-penalty, para que una instancia que falla rápido no
+ * parezca la más rápida. Cada resultado se informa también a OutlierDetector.
+ */
+@Component
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final InstanceStatsRegistry statsRegistry;
+    private final OutlierDetector outlierDetector;
+    private final long failurePenaltyNanos;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry statsRegistry,
+                                  OutlierDetector outlierDetector,
+                                  @Value("${gateway.load-balancer.failure-penalty:1s}") Duration failurePenalty) {
+        this.statsRegistry = statsRegistry;
+        this.outlierDetector = outlierDetector;
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            begin(lbResponse.getServer(), request);
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        end(lbResponse.getServer(), completionContext.getLoadBalancerRequest(), isFailure(completionContext));
+    }
+
+    /**
+     * Registra el inicio de una request a la instancia. Lo usan también los
+     * filtros que eligen instancia por su cuenta (ej. hedging).
+     */
+    public void begin(ServiceInstance instance, Object request) {
+        statsRegistry.statsFor(instance).onStart(request, System.nanoTime());
+    }
+
+    /**
+     * Registra el fin de una request iniciada con begin().
+     */
+    public void end(ServiceInstance instance, Object request, boolean failure) {
+        InstanceStats stats = statsRegistry.statsFor(instance);
+        Long start = stats.onComplete(request);
+        if (start == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long latency = now - start;
+        outlierDetector.onResult(stats, failure, latency, now);
+        if (failure) {
+            stats.recordFailure();
+            latency = Math.max(latency, failurePenaltyNanos);
+        }
+        stats.recordLatency(latency, now);
+    }
+
+    /**
+     * Descarta una request cancelada: deja de contar como en curso sin aportar latencia.
+     */
+    public void abandon(ServiceInstance instance, Object request) {
+        statsRegistry.statsFor(instance).onComplete(request);
+    }
+
+    private boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData responseData
+                && responseData.getHttpStatus() != null
+                && responseData.getHttpStatus().is5xxServerError();
+    }
+}
@@ -0,0 +1,52 @@
+package com.dmh.apigateway.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estadísticas por instancia compartidas entre el load balancer (que las lee
+ * para elegir) y InstanceStatsLifecycle (que las actualiza).
+ *
+ * Las instancias que dejan de recibir tráfico (bajas en Eureka) se descartan
+ * tras stats-idle-timeout.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final Cache<String, InstanceStats> stats;
+    private final Duration decayTime;
+    private final Duration maxRequestAge;
+
+    public InstanceStatsRegistry(@Value("${gateway.load-balancer.decay-time:10s}") Duration decayTime,
+                                 @Value("${gateway.load-balancer.max-request-age:60s}") Duration maxRequestAge,
+                                 @Value("${gateway.load-balancer.stats-idle-timeout:10m}") Duration statsIdleTimeout) {
+        this.decayTime = decayTime;
+        this.maxRequestAge = maxRequestAge;
+        this.stats = Caffeine.newBuilder()
+                .expireAfterAccess(statsIdleTimeout)
+                .build();
+    }
+
+    public InstanceStats statsFor(ServiceInstance instance) {
+        String address = instance.getHost() + ":" + instance.getPort();
+        return stats.get(instance.getServiceId() + "|" + address,
+                key -> new InstanceStats(instance.getServiceId(), address, decayTime, maxRequestAge));
+    }
+
+    public Collection<InstanceStats> all() {
+        return stats.asMap().values();
+    }
+
+    public List<InstanceStats> forService(String serviceId) {
+        return stats.asMap().values().stream()
+                .filter(instanceStats -> instanceStats.getServiceId().equals(serviceId))
+                .toList();
+    }
+}
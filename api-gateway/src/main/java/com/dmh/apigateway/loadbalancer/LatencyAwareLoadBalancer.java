@@ -0,0 +1,119 @@
+package com.dmh.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load balancer "power of two choices": toma dos instancias al azar y elige
+ * la de menor costo (latencia EWMA x requests en curso, ver InstanceStats).
+ *
+ * Comparar solo dos evita que todas las requests se vayan a la misma
+ * instancia "mejor" entre actualizaciones de estadísticas, y una instancia
+ * lenta queda casi sin tráfico sin que haya que sacarla de Eureka.
+ *
+ * Con afinidad habilitada (AffinityKeyResolver), las requests con clave van a
+ * su instancia en un ConsistentHashRing, salteando las expulsadas y las que
+ * superan load-factor veces el promedio de requests en curso (consistent
+ * hashing with bounded loads). Si ninguna califica, se vuelve a P2C.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry statsRegistry;
+    private final OutlierDetector outlierDetector;
+    private final AffinityKeyResolver affinity;
+    private volatile ConsistentHashRing ring;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId,
+                                    InstanceStatsRegistry statsRegistry,
+                                    OutlierDetector outlierDetector) {
+        this(supplierProvider, serviceId, statsRegistry, outlierDetector, null);
+    }
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId,
+                                    InstanceStatsRegistry statsRegistry,
+                                    OutlierDetector outlierDetector,
+                                    AffinityKeyResolver affinity) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.statsRegistry = statsRegistry;
+        this.outlierDetector = outlierDetector;
+        this.affinity = affinity;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String affinityKey = affinity != null ? affinity.keyFor(serviceId, request) : null;
+        if (affinityKey == null) {
+            return supplier.get(request).next().map(this::chooseFrom);
+        }
+        return supplier.get(request).next().map(instances -> chooseByAffinity(instances, affinityKey));
+    }
+
+    Response<ServiceInstance> chooseByAffinity(List<ServiceInstance> allInstances, String affinityKey) {
+        if (allInstances.isEmpty()) {
+            return new EmptyResponse();
+        }
+
+        ConsistentHashRing current = ring;
+        if (current == null || !current.hasMembers(allInstances)) {
+            current = new ConsistentHashRing(allInstances, affinity.getVirtualNodes());
+            ring = current;
+        }
+
+        List<ServiceInstance> available = outlierDetector.filterAvailable(allInstances, System.nanoTime());
+        int outstanding = 0;
+        for (ServiceInstance instance : available) {
+            outstanding += statsRegistry.statsFor(instance).getOutstanding();
+        }
+        double maxLoad = Math.ceil(affinity.getLoadFactor() * (outstanding + 1) / available.size());
+
+        ServiceInstance owner = current.locate(affinityKey, instance -> available.contains(instance)
+                && statsRegistry.statsFor(instance).getOutstanding() < maxLoad);
+        return owner != null ? new DefaultResponse(owner) : chooseFrom(allInstances);
+    }
+
+    /**
+     * Elige entre las instancias dadas (también la usa el hedging para
+     * elegir una instancia distinta de la del primer intento).
+     */
+    public Response<ServiceInstance> chooseFrom(List<ServiceInstance> allInstances) {
+        List<ServiceInstance> instances = outlierDetector.filterAvailable(allInstances, System.nanoTime());
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(statsRegistry.statsFor(a).cost() <= statsRegistry.statsFor(b).cost() ? a : b);
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dmh.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuración de cada cliente de load balancer (un contexto hijo por servicio).
+ *
+ * Sin @Configuration a propósito: se registra solo vía @LoadBalancerClients
+ * (ver LoadBalancerConfig) y no debe entrar al contexto principal por el
+ * component scan.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceStatsRegistry statsRegistry,
+                                                                         OutlierDetector outlierDetector,
+                                                                         AffinityKeyResolver affinity) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                statsRegistry,
+                outlierDetector,
+                affinity);
+    }
+}
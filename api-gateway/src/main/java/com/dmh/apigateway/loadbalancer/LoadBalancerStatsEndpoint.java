@@ -0,0 +1,47 @@
+package com.dmh.apigateway.loadbalancer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * GET /actuator/lbstats: estadísticas por instancia, agrupadas por servicio.
+ */
+@Component
+@Endpoint(id = "lbstats")
+public class LoadBalancerStatsEndpoint {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public LoadBalancerStatsEndpoint(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, List<Map<String, Object>>> stats() {
+        return statsRegistry.all().stream()
+                .sorted(Comparator.comparing(InstanceStats::getInstance))
+                .collect(Collectors.groupingBy(InstanceStats::getServiceId, TreeMap::new,
+                        Collectors.mapping(this::describe, Collectors.toList())));
+    }
+
+    private Map<String, Object> describe(InstanceStats stats) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("instance", stats.getInstance());
+        description.put("outstanding", stats.getOutstanding());
+        description.put("ewmaLatencyMs", stats.getEwmaNanos() / TimeUnit.MILLISECONDS.toNanos(1));
+        description.put("requests", stats.getRequests());
+        description.put("failures", stats.getFailures());
+        description.put("ejected", stats.isEjected(System.nanoTime()));
+        description.put("ejections", stats.getEjections());
+        return description;
+    }
+}
@@ -0,0 +1,180 @@
+package com.dmh.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Detección pasiva de instancias anómalas a partir de las respuestas reales.
+ *
+ * Una instancia se expulsa del pool del load balancer cuando acumula
+ * consecutive-errors fallas (error de conexión o 5xx) seguidas, o
+ * consecutive-slow respuestas seguidas más lentas que latency-factor veces
+ * la latencia típica de las demás instancias del servicio.
+ *
+ * - La expulsión dura base-ejection x 2^(expulsiones seguidas - 1), hasta max-ejection.
+ * - Al volver, la instancia recibe tráfico de a poco: durante ramp-up la
+ *   probabilidad de que entre en la elección crece linealmente del 10% al 100%.
+ * - Nunca se expulsa más de max-ejection-percent de las instancias de un servicio.
+ *
+ * Métrica: gateway.lb.ejections por service y reason (errors/latency).
+ */
+@Component
+public class OutlierDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutlierDetector.class);
+
+    private static final double MIN_RAMP_UP_WEIGHT = 0.1;
+
+    private final InstanceStatsRegistry statsRegistry;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int consecutiveErrors;
+    private final int consecutiveSlow;
+    private final double latencyFactor;
+    private final long minSlowLatencyNanos;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final long rampUpNanos;
+    private final int maxEjectionPercent;
+
+    public OutlierDetector(InstanceStatsRegistry statsRegistry,
+                           MeterRegistry meterRegistry,
+                           @Value("${gateway.load-balancer.outlier.enabled:true}") boolean enabled,
+                           @Value("${gateway.load-balancer.outlier.consecutive-errors:5}") int consecutiveErrors,
+                           @Value("${gateway.load-balancer.outlier.consecutive-slow:5}") int consecutiveSlow,
+                           @Value("${gateway.load-balancer.outlier.latency-factor:3.0}") double latencyFactor,
+                           @Value("${gateway.load-balancer.outlier.min-slow-latency:200ms}") Duration minSlowLatency,
+                           @Value("${gateway.load-balancer.outlier.base-ejection:30s}") Duration baseEjection,
+                           @Value("${gateway.load-balancer.outlier.max-ejection:5m}") Duration maxEjection,
+                           @Value("${gateway.load-balancer.outlier.ramp-up:30s}") Duration rampUp,
+                           @Value("${gateway.load-balancer.outlier.max-ejection-percent:50}") int maxEjectionPercent) {
+        this.statsRegistry = statsRegistry;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.consecutiveErrors = consecutiveErrors;
+        this.consecutiveSlow = consecutiveSlow;
+        this.latencyFactor = latencyFactor;
+        this.minSlowLatencyNanos = minSlowLatency.toNanos();
+        this.baseEjectionNanos = baseEjection.toNanos();
+        this.maxEjectionNanos = maxEjection.toNanos();
+        this.rampUpNanos = rampUp.toNanos();
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    /**
+     * Registra el resultado de una request a la instancia.
+     */
+    public void onResult(InstanceStats stats, boolean failure, long latencyNanos, long nowNanos) {
+        if (!enabled) {
+            return;
+        }
+
+        if (failure) {
+            if (stats.consecutiveErrors.incrementAndGet() >= consecutiveErrors) {
+                tryEject(stats, "errors", nowNanos);
+            }
+            return;
+        }
+        stats.consecutiveErrors.set(0);
+
+        if (isLatencyExcursion(stats, latencyNanos)) {
+            if (stats.consecutiveSlow.incrementAndGet() >= consecutiveSlow) {
+                tryEject(stats, "latency", nowNanos);
+            }
+        } else {
+            stats.consecutiveSlow.set(0);
+        }
+    }
+
+    /**
+     * Instancias elegibles: sin las expulsadas y, en ramp-up, con probabilidad
+     * creciente. Si no queda ninguna, devuelve la lista original (mejor una
+     * instancia dudosa que ninguna).
+     */
+    public List<ServiceInstance> filterAvailable(List<ServiceInstance> instances, long nowNanos) {
+        if (!enabled) {
+            return instances;
+        }
+
+        List<ServiceInstance> available = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (isAvailable(statsRegistry.statsFor(instance), nowNanos)) {
+                available.add(instance);
+            }
+        }
+        return available.isEmpty() ? instances : available;
+    }
+
+    boolean isAvailable(InstanceStats stats, long nowNanos) {
+        long ejectedUntil = stats.getEjectedUntilNanos();
+        if (ejectedUntil == 0) {
+            return true;
+        }
+        long sinceReadmission = nowNanos - ejectedUntil;
+        if (sinceReadmission < 0) {
+            return false;
+        }
+        if (sinceReadmission >= rampUpNanos) {
+            return true;
+        }
+        double weight = Math.max(MIN_RAMP_UP_WEIGHT, (double) sinceReadmission / rampUpNanos);
+        return ThreadLocalRandom.current().nextDouble() < weight;
+    }
+
+    private boolean isLatencyExcursion(InstanceStats stats, long latencyNanos) {
+        if (latencyNanos < minSlowLatencyNanos) {
+            return false;
+        }
+        double baseline = baselineLatency(stats);
+        return baseline > 0 && latencyNanos > baseline * latencyFactor;
+    }
+
+    /**
+     * Mediana de la EWMA de las otras instancias del servicio (0 si no hay con quién comparar).
+     */
+    private double baselineLatency(InstanceStats stats) {
+        double[] others = statsRegistry.forService(stats.getServiceId()).stream()
+                .filter(other -> other != stats && other.getRequests() > 0)
+                .mapToDouble(InstanceStats::getEwmaNanos)
+                .sorted()
+                .toArray();
+        return others.length == 0 ? 0 : others[others.length / 2];
+    }
+
+    private synchronized void tryEject(InstanceStats stats, String reason, long nowNanos) {
+        if (stats.isEjected(nowNanos)) {
+            return;
+        }
+
+        List<InstanceStats> serviceInstances = statsRegistry.forService(stats.getServiceId());
+        long alreadyEjected = serviceInstances.stream().filter(other -> other.isEjected(nowNanos)).count();
+        if ((alreadyEjected + 1) * 100 > (long) serviceInstances.size() * maxEjectionPercent) {
+            logger.warn("⚠️ Not ejecting {} {} ({}): max ejection percent reached",
+                    stats.getServiceId(), stats.getInstance(), reason);
+            return;
+        }
+
+        int streak = stats.eject(nowNanos, maxEjectionNanos + rampUpNanos);
+        long duration = Math.min(maxEjectionNanos, baseEjectionNanos << Math.min(streak - 1, 20));
+        stats.setEjectedUntilNanos(nowNanos + duration);
+
+        logger.warn("🚫 Ejecting {} {} for {} ms ({}, ejection #{})", stats.getServiceId(), stats.getInstance(),
+                Duration.ofNanos(duration).toMillis(), reason, streak);
+        Counter.builder("gateway.lb.ejections")
+                .description("Instancias expulsadas del load balancer")
+                .tag("service", stats.getServiceId())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,73 @@
+package com.dmh.apigateway.ratelimit;
+
+import com.dmh.apigateway.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets en memoria, uno por clave (ruta + usuario).
+ *
+ * Cada bucket se implementa con GCRA: guarda solo el "theoretical arrival
+ * time" (TAT) en un AtomicLong y se actualiza con CAS, sin locks. Equivale a
+ * un token bucket de capacidad burst-capacity que se recarga a
+ * replenish-rate tokens por segundo.
+ *
+ * Los buckets viven en un cache Caffeine (hash concurrente particionado) que
+ * descarta los que no se usan durante idle-timeout.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        Gauge.builder("gateway.rate-limit.buckets", buckets, Cache::estimatedSize)
+                .description("Buckets de rate limit activos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Intenta consumir un token del bucket.
+     *
+     * @return 0 si se admite la request; si no, los nanosegundos a esperar
+     *         hasta que haya un token disponible
+     */
+    public long tryAcquire(String key, RateLimitProperties.Limit limit) {
+        long emissionInterval = (long) (1_000_000_000L / limit.getReplenishRate());
+        long tolerance = emissionInterval * limit.getBurstCapacity();
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = tat.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + emissionInterval;
+
+            long excess = next - now - tolerance;
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
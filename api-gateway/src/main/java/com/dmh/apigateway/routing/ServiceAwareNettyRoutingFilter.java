@@ -0,0 +1,44 @@
+package com.dmh.apigateway.routing;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * NettyRoutingFilter que usa el pool del servicio (ServiceHttpClients) en las
+ * rutas lb://. Las demás rutas siguen con el HttpClient compartido.
+ *
+ * Corre justo antes que el NettyRoutingFilter original, que al ver la
+ * request ya ruteada no hace nada (además se deshabilita en config-repo).
+ */
+public class ServiceAwareNettyRoutingFilter extends NettyRoutingFilter {
+
+    private final ServiceHttpClients serviceHttpClients;
+
+    public ServiceAwareNettyRoutingFilter(HttpClient httpClient,
+                                          ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                          HttpClientProperties properties,
+                                          ServiceHttpClients serviceHttpClients) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.serviceHttpClients = serviceHttpClients;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        if ("lb".equals(route.getUri().getScheme())) {
+            return serviceHttpClients.forService(route.getUri().getHost());
+        }
+        return super.getHttpClient(route, exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
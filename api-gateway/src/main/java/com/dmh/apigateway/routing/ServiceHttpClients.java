@@ -0,0 +1,125 @@
+package com.dmh.apigateway.routing;
+
+import com.dmh.apigateway.config.ConnectionPoolProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Un HttpClient con ConnectionProvider propio por servicio (bulkhead): una
+ * fuga de conexiones o un servicio lento solo agota su pool, no el del resto.
+ *
+ * Métricas por service y remote.address: gateway.http.pool.acquired,
+ * gateway.http.pool.pending, gateway.http.pool.idle y gateway.http.pool.allocated.
+ */
+@Component
+public class ServiceHttpClients implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceHttpClients.class);
+
+    private final ConnectionPoolProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> poolMeters = new ConcurrentHashMap<>();
+
+    public ServiceHttpClients(ConnectionPoolProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public HttpClient forService(String serviceId) {
+        return clients.computeIfAbsent(serviceId, this::create);
+    }
+
+    private HttpClient create(String serviceId) {
+        ConnectionPoolProperties.Pool pool = properties.poolFor(serviceId);
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("gateway-" + serviceId)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getMaxIdleTime())
+                .metrics(true, () -> new PoolMeterRegistrar(serviceId));
+        if (pool.isH2c()) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(pool.getMaxConnections())
+                    .maxConcurrentStreams(pool.getMaxConcurrentStreams())
+                    .build());
+        }
+        ConnectionProvider provider = builder.build();
+        providers.put(serviceId, provider);
+
+        HttpClient client = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis());
+        if (pool.isH2c()) {
+            client = client.protocol(HttpProtocol.H2C);
+        }
+
+        logger.info("🔌 Connection pool for {}: max {} connections{}", serviceId, pool.getMaxConnections(),
+                pool.isH2c() ? ", h2c x" + pool.getMaxConcurrentStreams() + " streams" : "");
+        return client;
+    }
+
+    @Override
+    public void destroy() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+
+    /**
+     * Registra los gauges de cada pool (uno por dirección remota) en el
+     * MeterRegistry de la aplicación.
+     */
+    private class PoolMeterRegistrar implements ConnectionProvider.MeterRegistrar {
+
+        private final String serviceId;
+
+        PoolMeterRegistrar(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+            String remote = remoteAddress.toString();
+            poolMeters.put(id + remote, List.of(
+                    gauge("gateway.http.pool.acquired", "Conexiones en uso", remote, metrics, ConnectionPoolMetrics::acquiredSize),
+                    gauge("gateway.http.pool.pending", "Requests esperando una conexión", remote, metrics, ConnectionPoolMetrics::pendingAcquireSize),
+                    gauge("gateway.http.pool.idle", "Conexiones libres", remote, metrics, ConnectionPoolMetrics::idleSize),
+                    gauge("gateway.http.pool.allocated", "Conexiones abiertas", remote, metrics, ConnectionPoolMetrics::allocatedSize)));
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            List<Meter> meters = poolMeters.remove(id + remoteAddress.toString());
+            if (meters != null) {
+                meters.forEach(meterRegistry::remove);
+            }
+        }
+
+        private Meter gauge(String name, String description, String remote,
+                            ConnectionPoolMetrics metrics, ToDoubleFunction<ConnectionPoolMetrics> value) {
+            return Gauge.builder(name, metrics, value)
+                    .description(description)
+                    .tag("service", serviceId)
+                    .tag("remote.address", remote)
+                    .register(meterRegistry);
+        }
+    }
+}
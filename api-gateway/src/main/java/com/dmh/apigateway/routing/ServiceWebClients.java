@@ -0,0 +1,36 @@
+package com.dmh.apigateway.routing;
+
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Un WebClient @LoadBalanced por servicio, cada uno sobre el pool de ese
+ * servicio (ServiceHttpClients). Lo usan las llamadas que arma el propio
+ * gateway (dashboard, revalidación del cache, shadow) para que compartan el
+ * bulkhead con las rutas lb:// en lugar del pool global.
+ */
+@Component
+public class ServiceWebClients {
+
+    private final WebClient.Builder loadBalancedBuilder;
+    private final ServiceHttpClients serviceHttpClients;
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+
+    public ServiceWebClients(WebClient.Builder loadBalancedBuilder, ServiceHttpClients serviceHttpClients) {
+        this.loadBalancedBuilder = loadBalancedBuilder;
+        this.serviceHttpClients = serviceHttpClients;
+    }
+
+    /**
+     * @param serviceId id del servicio en Eureka, que también es el host de las URIs
+     */
+    public WebClient forService(String serviceId) {
+        return clients.computeIfAbsent(serviceId, id -> loadBalancedBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(serviceHttpClients.forService(id)))
+                .build());
+    }
+}
@@ -0,0 +1,180 @@
+package com.dmh.apigateway.shadow;
+
+import com.dmh.apigateway.routing.ServiceWebClients;
+import com.dmh.apigateway.util.ProxyHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envía copias de requests a un servicio "shadow" y compara sus respuestas
+ * con las del servicio real.
+ *
+ * La copia sale por el WebClient @LoadBalanced del servicio shadow (con su
+ * pool, ver ServiceWebClients), en segundo plano, y su
+ * respuesta se descarta. Como mucho max-in-flight copias a la vez; el
+ * resto se omite (gateway.shadow.dropped) para no afectar al gateway.
+ *
+ * Métricas por route:
+ * - gateway.shadow.latency con target primary/shadow (histograma).
+ * - gateway.shadow.comparisons con result match, status_mismatch o body_mismatch.
+ * - gateway.shadow.errors: la copia falló o venció.
+ */
+@Component
+public class ShadowMirror {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShadowMirror.class);
+
+    static final String SHADOW_HEADER = "X-Shadow-Request";
+
+    private final ServiceWebClients serviceWebClients;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final Semaphore inFlight;
+
+    public ShadowMirror(ServiceWebClients serviceWebClients,
+                        MeterRegistry meterRegistry,
+                        @Value("${gateway.shadow.timeout:5s}") Duration timeout,
+                        @Value("${gateway.shadow.max-in-flight:50}") int maxInFlight) {
+        this.serviceWebClients = serviceWebClients;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /** Resultado de un intento: status, SHA-256 del cuerpo y latencia hasta el último byte */
+    public record Result(int status, byte[] bodyHash, long latencyNanos) {
+    }
+
+    /**
+     * Lanza la copia y, cuando terminen ambas, registra la comparación con primary.
+     */
+    public void mirror(String routeId, String shadowService, ServerHttpRequest request, Mono<Result> primary) {
+        if (!inFlight.tryAcquire()) {
+            counter("gateway.shadow.dropped", "Copias omitidas por max-in-flight", routeId).increment();
+            return;
+        }
+
+        URI uri = UriComponentsBuilder.newInstance()
+                .scheme("http")
+                .host(shadowService)
+                .path(request.getURI().getRawPath())
+                .query(request.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+        HttpHeaders headers = new HttpHeaders();
+        ProxyHeaders.copyEndToEnd(request.getHeaders(), headers);
+
+        Mono<Result> shadow = Mono.defer(() -> {
+            long start = System.nanoTime();
+            return serviceWebClients.forService(shadowService)
+                    .method(request.getMethod())
+                    .uri(uri)
+                    .headers(h -> {
+                        h.addAll(headers);
+                        h.set(SHADOW_HEADER, "true");
+                    })
+                    .exchangeToMono(response -> hash(response.bodyToFlux(DataBuffer.class))
+                            .map(bodyHash -> new Result(response.statusCode().value(), bodyHash, System.nanoTime() - start)))
+                    .timeout(timeout);
+        });
+
+        shadow.doOnNext(result -> latency(routeId, "shadow").record(result.latencyNanos(), TimeUnit.NANOSECONDS))
+                .zipWith(primary)
+                .doFinally(signal -> inFlight.release())
+                .subscribe(
+                        results -> compare(routeId, results.getT2(), results.getT1()),
+                        error -> {
+                            logger.debug("Shadow request to {} failed: {}", uri, error.toString());
+                            counter("gateway.shadow.errors", "Copias que fallaron o vencieron", routeId).increment();
+                        });
+    }
+
+    public void recordPrimary(String routeId, Result result) {
+        latency(routeId, "primary").record(result.latencyNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Hash del cuerpo consumiendo los buffers a medida que llegan, sin juntarlos */
+    public static Mono<byte[]> hash(Publisher<? extends DataBuffer> body) {
+        return Mono.defer(() -> {
+            MessageDigest digest = sha256();
+            return Flux.from(body)
+                    .doOnNext(buffer -> {
+                        update(digest, buffer);
+                        DataBufferUtils.release(buffer);
+                    })
+                    .then(Mono.fromSupplier(digest::digest));
+        });
+    }
+
+    public static void update(MessageDigest digest, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                digest.update(byteBuffer);
+            }
+        }
+    }
+
+    private void compare(String routeId, Result primary, Result shadow) {
+        String result;
+        if (primary.status() != shadow.status()) {
+            result = "status_mismatch";
+        } else if (!Arrays.equals(primary.bodyHash(), shadow.bodyHash())) {
+            result = "body_mismatch";
+        } else {
+            result = "match";
+        }
+        Counter.builder("gateway.shadow.comparisons")
+                .description("Comparaciones de respuesta primary vs shadow")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer latency(String routeId, String target) {
+        return Timer.builder("gateway.shadow.latency")
+                .description("Latencia hasta el último byte, primary vs shadow")
+                .tag("route", routeId)
+                .tag("target", target)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter counter(String name, String description, String routeId) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
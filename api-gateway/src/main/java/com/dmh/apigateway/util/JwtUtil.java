@@ -1,61 +1,54 @@
 package com.dmh.apigateway.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.dmh.jwt.JwtVerificationException;
+import com.dmh.jwt.JwtVerifier;
+import com.dmh.jwt.VerifiedClaims;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
-
+import java.util.Optional;
+
+/**
+ * Adaptador Spring de JwtVerifier (jwt-core).
+ *
+ * La clave y el parser se construyen una vez al crear el bean. El filtro usa
+ * verify(), que valida firma y expiración con un único parseo.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtVerifier verifier;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.verifier = new JwtVerifier(secret);
+    }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Verifica firma y expiración en un solo parseo.
+     * Vacío si el token es inválido o expiró.
+     */
+    public Optional<VerifiedClaims> verify(String token) {
+        return verifier.tryVerify(token);
     }
 
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verifier.verify(token).subject();
     }
 
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verifier.verify(token).userId();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return Date.from(verifier.verify(token).expiresAt());
     }
 
     public Boolean validateToken(String token) {
         try {
-            extractAllClaims(token);  // Si no lanza excepción, la firma es válida
-            return !isTokenExpired(token);
-        } catch (Exception e) {
+            verifier.verify(token);
+            return true;
+        } catch (JwtVerificationException e) {
             return false;
         }
     }
@@ -0,0 +1,28 @@
+package com.dmh.apigateway.util;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Set;
+
+/**
+ * Copia de headers para los filtros que llaman al servicio por su cuenta
+ * (hedging, revalidación de cache) en vez de pasar por NettyRoutingFilter.
+ */
+public final class ProxyHeaders {
+
+    /** Hop-by-hop y headers que recalcula el cliente HTTP */
+    private static final Set<String> EXCLUDED = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "host", "content-length");
+
+    private ProxyHeaders() {
+    }
+
+    public static void copyEndToEnd(HttpHeaders from, HttpHeaders to) {
+        from.forEach((name, values) -> {
+            if (!EXCLUDED.contains(name.toLowerCase())) {
+                to.put(name, values);
+            }
+        });
+    }
+}
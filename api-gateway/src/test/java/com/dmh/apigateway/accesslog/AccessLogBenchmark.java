@@ -0,0 +1,156 @@
+package com.dmh.apigateway.accesslog;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por request del logging en el thread de la request.
+ *
+ * - legacyVerboseLogging: las ~13 líneas INFO/WARN que JwtAuthenticationFilter
+ *   escribía por cada request autenticada (headers y query incluidos).
+ * - ringBufferAccessLog: muestreo + copia al ring buffer de AccessLogWriter;
+ *   el formateo y la escritura quedan en el thread de fondo.
+ *
+ * Ambos escriben con Logback a un appender que descarta la salida, así se mide
+ * formateo y encoding sin el costo de disco.
+ *
+ * mvn -pl api-gateway -P benchmark test-compile exec:exec
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class AccessLogBenchmark {
+
+    private static final List<String> PUBLIC_ROUTES = List.of(
+            "/api/users/register",
+            "/api/users/login",
+            "/api/users/token/validate"
+    );
+
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ1c2VyQGRtaC5jb20iLCJ1c2VySWQiOjQyfQ.signature";
+
+    @State(Scope.Benchmark)
+    public static class LegacyState {
+        Logger logger;
+        ServerHttpRequest request;
+
+        @Setup
+        public void setUp() {
+            logger = discardingLogger("benchmark.legacy-filter");
+            request = sampleRequest();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AccessLogState {
+
+        @Param({"0.1", "1.0"})
+        double sampleRate;
+
+        AccessLogWriter writer;
+        ServerHttpRequest request;
+
+        @Setup
+        public void setUp() {
+            discardingLogger("com.dmh.apigateway.access");
+            writer = new AccessLogWriter(true, 8192, sampleRate, new SimpleMeterRegistry());
+            writer.start();
+            request = sampleRequest();
+        }
+
+        @TearDown
+        public void tearDown() {
+            writer.stop();
+        }
+    }
+
+    @Benchmark
+    public void legacyVerboseLogging(LegacyState state) {
+        Logger logger = state.logger;
+        ServerHttpRequest request = state.request;
+        String path = request.getURI().getPath();
+        String method = request.getMethod().name();
+        String host = request.getHeaders().getFirst("Host");
+
+        logger.info("=================================================");
+        logger.info("🔒 JWT Filter - Incoming Request");
+        logger.info("🔒 Method: {}, Path: {}, Host: {}", method, path, host);
+        logger.info("🔒 Full URI: {}", request.getURI());
+        logger.info("🔒 Query: {}", request.getQueryParams());
+        logger.info("🔒 Headers: {}", request.getHeaders());
+        logger.info("🔒 Is public route? {}", false);
+        logger.info("🔒 Public routes: {}", PUBLIC_ROUTES);
+        logger.warn("🚫 REQUIRING AUTH: This path needs JWT validation: {}", path);
+        logger.info("🔒 Auth header present? {}", true);
+        logger.info("🔒 Token extracted (first 20 chars): {}...", TOKEN.substring(0, 20));
+        logger.info("✅ TOKEN VALIDATED: Token is valid");
+        logger.info("✅ ALLOWING: User ID {} validated successfully for path: {}", 42L, path);
+    }
+
+    @Benchmark
+    public void ringBufferAccessLog(AccessLogState state) {
+        ServerHttpRequest request = state.request;
+        if (state.writer.shouldLog(200)) {
+            state.writer.log(request.getMethod().name(), request.getURI().getRawPath(),
+                    "account-service", 200, 1_250, 42L, "10.0.0.12");
+        }
+    }
+
+    private static ServerHttpRequest sampleRequest() {
+        return MockServerHttpRequest.get("http://localhost:8080/api/accounts/42/activity?page=0&size=20")
+                .header("Host", "localhost:8080")
+                .header("Authorization", "Bearer " + TOKEN)
+                .header("Accept", "application/json")
+                .header("User-Agent", "Mozilla/5.0 (X11; Linux x86_64)")
+                .build();
+    }
+
+    private static Logger discardingLogger(String name) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        ch.qos.logback.classic.Logger logger = context.getLogger(name);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
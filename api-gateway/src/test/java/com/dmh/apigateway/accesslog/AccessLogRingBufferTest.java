@@ -0,0 +1,81 @@
+package com.dmh.apigateway.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void testCapacityRoundedToPowerOfTwo() {
+        assertEquals(8, new AccessLogRingBuffer(5).capacity());
+        assertEquals(8, new AccessLogRingBuffer(8).capacity());
+    }
+
+    @Test
+    void testDrainReturnsEntriesInOrder() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+        buffer.tryPublish(1L, "GET", "/a", "r", 200, 10, 1, "ip");
+        buffer.tryPublish(2L, "POST", "/b", "r", 500, 20, -1, "ip");
+
+        List<String> lines = new ArrayList<>();
+        assertEquals(2, buffer.drain(entry -> lines.add(format(entry)), 10));
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("ts=1 method=GET path=/a"));
+        assertTrue(lines.get(1).contains("status=500"));
+        assertTrue(lines.get(1).contains("user=-"));
+        assertEquals(0, buffer.backlog());
+    }
+
+    @Test
+    void testFullBufferDropsInsteadOfOverwriting() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.tryPublish(i, "GET", "/" + i, null, 200, 0, -1, null));
+        }
+
+        assertFalse(buffer.tryPublish(99, "GET", "/dropped", null, 200, 0, -1, null));
+
+        List<String> lines = new ArrayList<>();
+        buffer.drain(entry -> lines.add(format(entry)), 10);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).contains("path=/0"));
+        assertTrue(buffer.tryPublish(5, "GET", "/after", null, 200, 0, -1, null));
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingWhenConsumed() throws InterruptedException {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.tryPublish(i, "GET", "/x", null, 200, 0, -1, null);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(producers * perProducer, buffer.drain(entry -> { }, Integer.MAX_VALUE));
+    }
+
+    private String format(AccessLogEntry entry) {
+        StringBuilder out = new StringBuilder();
+        entry.appendTo(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.dmh.apigateway.cache;
+
+import com.dmh.apigateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private static final String KEY = "7|/api/accounts/42";
+
+    private AtomicLong clock;
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setTtl(Duration.ofSeconds(5));
+        properties.setStaleWhileRevalidate(Duration.ofSeconds(30));
+        properties.setStaleIfError(Duration.ofMinutes(5));
+        properties.setPaths(List.of("/api/accounts/{id}", "/api/accounts/{id}/cards"));
+        clock = new AtomicLong();
+        cache = new ResponseCache(properties, new SimpleMeterRegistry(), clock::get);
+    }
+
+    @Test
+    void testScopeAndCacheablePaths() {
+        assertEquals("42", cache.scopeOf("/api/accounts/42"));
+        assertEquals("42", cache.scopeOf("/api/accounts/42/transfers"));
+        assertNull(cache.scopeOf("/api/users/42"));
+
+        assertTrue(cache.isCacheable("/api/accounts/42/cards"));
+        assertFalse(cache.isCacheable("/api/accounts/42/activity"));
+    }
+
+    @Test
+    void testFreshnessByAge() {
+        cache.store("42", 0, KEY, response());
+
+        assertEquals(ResponseCache.Freshness.FRESH, cache.lookup("42", KEY).freshness());
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(ResponseCache.Freshness.STALE, cache.lookup("42", KEY).freshness());
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertEquals(ResponseCache.Freshness.STALE_IF_ERROR, cache.lookup("42", KEY).freshness());
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertNull(cache.lookup("42", KEY));
+    }
+
+    @Test
+    void testWriteInvalidatesScope() {
+        cache.store("42", 0, KEY, response());
+        cache.store("42", 0, "7|/api/accounts/42/cards", response());
+
+        cache.invalidate("42");
+
+        assertNull(cache.lookup("42", KEY));
+        assertNull(cache.lookup("42", "7|/api/accounts/42/cards"));
+    }
+
+    @Test
+    void testReadStartedBeforeWriteIsNotStored() {
+        long version = cache.version("42");
+        cache.invalidate("42");
+
+        cache.store("42", version, KEY, response());
+
+        assertNull(cache.lookup("42", KEY));
+        cache.store("42", cache.version("42"), KEY, response());
+        assertNotNull(cache.lookup("42", KEY));
+    }
+
+    private CachedResponse response() {
+        return cache.newResponse(new HttpHeaders(), "{\"id\":42}".getBytes());
+    }
+}
@@ -0,0 +1,67 @@
+package com.dmh.apigateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(100, Duration.ofSeconds(30), meterRegistry);
+    }
+
+    @Test
+    void testPutAndGet() {
+        cache.put("header.payload.signature", 42L, 0L, Instant.now().plusSeconds(3600));
+
+        VerifiedToken verified = cache.get("header.payload.signature");
+
+        assertNotNull(verified);
+        assertEquals(42L, verified.userId());
+    }
+
+    @Test
+    void testGet_Miss() {
+        assertNull(cache.get("unknown.token"));
+    }
+
+    @Test
+    void testGet_ExpiredToken() {
+        cache.put("expired.token", 1L, 0L, Instant.now().minusSeconds(1));
+
+        assertNull(cache.get("expired.token"));
+    }
+
+    @Test
+    void testInvalidate() {
+        cache.put("logout.token", 1L, 0L, Instant.now().plusSeconds(3600));
+
+        cache.invalidate("logout.token");
+
+        assertNull(cache.get("logout.token"));
+    }
+
+    @Test
+    void testMetricsRegistered() {
+        cache.put("header.payload.signature", 1L, 0L, Instant.now().plusSeconds(3600));
+        cache.get("header.payload.signature");
+        cache.get("unknown.token");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", "gateway.verified-tokens").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", "gateway.verified-tokens").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
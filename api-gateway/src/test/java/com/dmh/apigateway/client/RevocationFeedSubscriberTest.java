@@ -0,0 +1,125 @@
+package com.dmh.apigateway.client;
+
+import com.dmh.apigateway.cache.RevokedTokenSet;
+import com.dmh.apigateway.cache.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationFeedSubscriberTest {
+
+    private final Map<Long, RevokedTokenSet.Epoch> epochSnapshot = new HashMap<>();
+    private RevokedTokenSet revokedTokenSet;
+    private RevocationFeedSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        revokedTokenSet = new RevokedTokenSet(meterRegistry);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100, Duration.ofSeconds(30), meterRegistry);
+        subscriber = new RevocationFeedSubscriber(WebClient.builder(), revokedTokenSet, verifiedTokenCache,
+                false, Duration.ofSeconds(1), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testSnapshotAppliedOnlyAfterSynced() {
+        Map<String, Long> snapshot = new HashMap<>();
+        AtomicBoolean synced = new AtomicBoolean(false);
+
+        subscriber.handle(revocation("abc"), snapshot, epochSnapshot, synced);
+
+        assertFalse(revokedTokenSet.isSynced());
+        assertFalse(revokedTokenSet.isRevoked("abc"));
+
+        subscriber.handle(syncedEvent(), snapshot, epochSnapshot, synced);
+
+        assertTrue(revokedTokenSet.isSynced());
+        assertTrue(revokedTokenSet.isRevoked("abc"));
+    }
+
+    @Test
+    void testLiveRevocationAfterSync() {
+        Map<String, Long> snapshot = new HashMap<>();
+        AtomicBoolean synced = new AtomicBoolean(false);
+        subscriber.handle(syncedEvent(), snapshot, epochSnapshot, synced);
+
+        subscriber.handle(revocation("live"), snapshot, epochSnapshot, synced);
+
+        assertTrue(revokedTokenSet.isRevoked("live"));
+    }
+
+    @Test
+    void testResyncDropsStaleEntries() {
+        revokedTokenSet.replaceAll(Map.of("old", System.currentTimeMillis() + 60_000));
+
+        Map<String, Long> snapshot = new HashMap<>();
+        AtomicBoolean synced = new AtomicBoolean(false);
+        subscriber.handle(revocation("new"), snapshot, epochSnapshot, synced);
+        subscriber.handle(syncedEvent(), snapshot, epochSnapshot, synced);
+
+        assertFalse(revokedTokenSet.isRevoked("old"));
+        assertTrue(revokedTokenSet.isRevoked("new"));
+    }
+
+    @Test
+    void testExpiredRevocationIgnored() {
+        revokedTokenSet.add("expired", System.currentTimeMillis() - 1);
+
+        assertFalse(revokedTokenSet.isRevoked("expired"));
+    }
+
+    @Test
+    void testEpochSupersedesOlderTokenVersions() {
+        Map<String, Long> snapshot = new HashMap<>();
+        AtomicBoolean synced = new AtomicBoolean(false);
+
+        subscriber.handle(epoch(7L, 2L), snapshot, epochSnapshot, synced);
+        assertFalse(revokedTokenSet.isSuperseded(7L, 1L));
+
+        subscriber.handle(syncedEvent(), snapshot, epochSnapshot, synced);
+        assertTrue(revokedTokenSet.isSuperseded(7L, 1L));
+        assertFalse(revokedTokenSet.isSuperseded(7L, 2L));
+
+        subscriber.handle(epoch(7L, 3L), snapshot, epochSnapshot, synced);
+        assertTrue(revokedTokenSet.isSuperseded(7L, 2L));
+        assertFalse(revokedTokenSet.isSuperseded(8L, 0L));
+    }
+
+    @Test
+    void testEpochsKeptWhileUnsynced() {
+        revokedTokenSet.addEpoch(7L, 2L, System.currentTimeMillis() + 60_000);
+        revokedTokenSet.markUnsynced();
+
+        assertTrue(revokedTokenSet.isSuperseded(7L, 1L));
+    }
+
+    private ServerSentEvent<RevocationEvent> epoch(Long userId, Long tokenVersion) {
+        return ServerSentEvent.<RevocationEvent>builder()
+                .event("epoch")
+                .data(new RevocationEvent(null, System.currentTimeMillis() + 60_000, null, userId, tokenVersion))
+                .build();
+    }
+
+    private ServerSentEvent<RevocationEvent> revocation(String digest) {
+        return ServerSentEvent.<RevocationEvent>builder()
+                .event("revocation")
+                .data(new RevocationEvent(digest, System.currentTimeMillis() + 60_000, null, null, null))
+                .build();
+    }
+
+    private ServerSentEvent<RevocationEvent> syncedEvent() {
+        return ServerSentEvent.<RevocationEvent>builder()
+                .event("synced")
+                .data(new RevocationEvent(null, null, 1L, null, null))
+                .build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.dmh.apigateway.client;
+
+import com.dmh.apigateway.cache.RevokedTokenSet;
+import com.dmh.jwt.TokenDigest;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBlacklistClientTest {
+
+    private static final Instant OLD_TOKEN = Instant.now().minus(Duration.ofHours(1));
+
+    private SimpleMeterRegistry meterRegistry;
+    private RevokedTokenSet revokedTokenSet;
+    private AtomicInteger downstreamCalls;
+    private Sinks.One<Boolean> release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revokedTokenSet = new RevokedTokenSet(meterRegistry);
+        downstreamCalls = new AtomicInteger();
+        release = Sinks.one();
+    }
+
+    @Test
+    void testConcurrentLookupsAreCoalesced() {
+        TokenBlacklistClient client = client(BlacklistFailMode.FAIL_CLOSED, delayedResponse());
+
+        Mono<List<Boolean>> pending = Flux.range(0, 5)
+                .flatMap(i -> client.isBlacklisted("same.token", OLD_TOKEN))
+                .collectList()
+                .cache();
+        pending.subscribe();
+        release.tryEmitValue(true);
+
+        List<Boolean> answers = pending.block();
+        assertEquals(5, answers.size());
+        assertTrue(answers.stream().noneMatch(Boolean::booleanValue));
+        assertEquals(1, downstreamCalls.get());
+        assertEquals(4.0, meterRegistry.get("gateway.blacklist.lookups").tag("outcome", "coalesced").counter().count());
+    }
+
+    @Test
+    void testNewLookupAfterCompletionHitsDownstreamAgain() {
+        TokenBlacklistClient client = client(BlacklistFailMode.FAIL_CLOSED, delayedResponse());
+        release.tryEmitValue(true);
+
+        client.isBlacklisted("same.token", OLD_TOKEN).block();
+        client.isBlacklisted("same.token", OLD_TOKEN).block();
+
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    void testSyncedFeedAnswersLocally() {
+        TokenBlacklistClient client = client(BlacklistFailMode.FAIL_CLOSED, delayedResponse());
+        revokedTokenSet.replaceAll(Map.of(TokenDigest.sha256("revoked.token"), System.currentTimeMillis() + 60_000));
+
+        assertTrue(client.isBlacklisted("revoked.token", OLD_TOKEN).block());
+        assertFalse(client.isBlacklisted("other.token", OLD_TOKEN).block());
+        assertEquals(0, downstreamCalls.get());
+    }
+
+    @Test
+    void testTimeoutFailsClosed() {
+        TokenBlacklistClient client = client(BlacklistFailMode.FAIL_CLOSED, request -> {
+            downstreamCalls.incrementAndGet();
+            return Mono.never();
+        });
+
+        assertTrue(client.isBlacklisted("slow.token", Instant.now()).block(Duration.ofSeconds(5)));
+        assertEquals(1.0, meterRegistry.get("gateway.blacklist.fallbacks")
+                .tag("mode", "FAIL_CLOSED").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void testFailOpenOnlyForYoungTokens() {
+        TokenBlacklistClient client = client(BlacklistFailMode.FAIL_OPEN_YOUNG_TOKENS, failingResponse(new AtomicBoolean(true)));
+
+        assertFalse(client.isBlacklisted("young.token", Instant.now()).block());
+        assertTrue(client.isBlacklisted("old.token", OLD_TOKEN).block());
+    }
+
+    @Test
+    void testLastKnownServesPreviousAnswer() {
+        AtomicBoolean failing = new AtomicBoolean(false);
+        TokenBlacklistClient client = client(BlacklistFailMode.LAST_KNOWN, failingResponse(failing));
+
+        assertFalse(client.isBlacklisted("known.token", OLD_TOKEN).block());
+        failing.set(true);
+
+        assertFalse(client.isBlacklisted("known.token", OLD_TOKEN).block());
+        assertTrue(client.isBlacklisted("unknown.token", OLD_TOKEN).block());
+    }
+
+    @Test
+    void testLastKnownFallsBackToLastSyncedFeed() {
+        TokenBlacklistClient client = client(BlacklistFailMode.LAST_KNOWN, failingResponse(new AtomicBoolean(true)));
+        revokedTokenSet.replaceAll(Map.of(TokenDigest.sha256("revoked.token"), System.currentTimeMillis() + 60_000));
+        assertFalse(client.isBlacklisted("active.token", OLD_TOKEN).block());
+
+        revokedTokenSet.markUnsynced();
+
+        assertFalse(client.isBlacklisted("active.token", OLD_TOKEN).block());
+        assertTrue(client.isBlacklisted("revoked.token", OLD_TOKEN).block());
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("gateway.blacklist.fallbacks")
+                .tag("mode", "LAST_KNOWN").tag("result", "allowed").counter().count());
+    }
+
+    @Test
+    void testLastKnownRejectsWhenFeedNeverSynced() {
+        TokenBlacklistClient client = client(BlacklistFailMode.LAST_KNOWN, failingResponse(new AtomicBoolean(true)));
+
+        assertTrue(client.isBlacklisted("active.token", OLD_TOKEN).block());
+    }
+
+    @Test
+    void testCircuitOpensAndShortCircuitsDownstream() {
+        TokenBlacklistClient client = client(BlacklistFailMode.FAIL_CLOSED, failingResponse(new AtomicBoolean(true)));
+
+        for (int i = 0; i < 4; i++) {
+            client.isBlacklisted("token-" + i, OLD_TOKEN).block();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+
+        int callsWhenOpened = downstreamCalls.get();
+        assertTrue(client.isBlacklisted("another.token", OLD_TOKEN).block());
+        assertEquals(callsWhenOpened, downstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("gateway.blacklist.circuit.transitions")
+                .tag("from", "CLOSED").tag("to", "OPEN").counter().count());
+    }
+
+    private TokenBlacklistClient client(BlacklistFailMode failMode, ExchangeFunction exchangeFunction) {
+        return new TokenBlacklistClient(WebClient.builder().exchangeFunction(exchangeFunction),
+                revokedTokenSet, meterRegistry,
+                Duration.ofSeconds(1), failMode, Duration.ofSeconds(60),
+                100, Duration.ofMinutes(10),
+                50, 4, Duration.ofSeconds(30));
+    }
+
+    private ExchangeFunction delayedResponse() {
+        return request -> {
+            downstreamCalls.incrementAndGet();
+            return release.asMono().map(TokenBlacklistClientTest::validResponse);
+        };
+    }
+
+    private ExchangeFunction failingResponse(AtomicBoolean failing) {
+        return request -> {
+            downstreamCalls.incrementAndGet();
+            if (failing.get()) {
+                return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+            }
+            return Mono.just(validResponse(true));
+        };
+    }
+
+    private static ClientResponse validResponse(boolean valid) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"valid\":" + valid + "}")
+                .build();
+    }
+}
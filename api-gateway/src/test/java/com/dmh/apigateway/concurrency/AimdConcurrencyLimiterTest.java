@@ -0,0 +1,77 @@
+package com.dmh.apigateway.concurrency;
+
+import com.dmh.apigateway.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private AimdConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties.Settings settings = new ConcurrencyLimitProperties.Settings();
+        settings.setInitialLimit(4);
+        settings.setMinLimit(2);
+        settings.setMaxLimit(6);
+        settings.setBackoffRatio(0.5);
+        settings.setLatencyThreshold(Duration.ofMillis(100));
+        limiter = new AimdConcurrencyLimiter(settings);
+    }
+
+    @Test
+    void testShedsBeyondLimit() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void testFastResponsesUnderLoadIncreaseLimit() {
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.onComplete(FAST, false);
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testIdleLimitDoesNotGrow() {
+        limiter.tryAcquire();
+        limiter.onComplete(FAST, false);
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void testSlowResponseBacksOffDownToMinimum() {
+        limiter.tryAcquire();
+        limiter.onComplete(SLOW, false);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.onComplete(FAST, true);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testReleaseDoesNotChangeLimit() {
+        limiter.tryAcquire();
+        limiter.release();
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,86 @@
+package com.dmh.apigateway.concurrency;
+
+import com.dmh.apigateway.config.ConcurrencyLimitProperties;
+import com.dmh.apigateway.config.QosProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QosAdmissionControllerTest {
+
+    private static final String GROUP = "account-service";
+
+    private SimpleMeterRegistry meterRegistry;
+    private QosProperties properties;
+    private QosAdmissionController controller;
+    private AimdConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new QosProperties();
+        properties.setCritical(new QosProperties.Lane(1.0, Duration.ofSeconds(5), 10));
+        properties.setBulk(new QosProperties.Lane(0.5, Duration.ZERO, 0));
+        controller = new QosAdmissionController(properties, meterRegistry);
+
+        ConcurrencyLimitProperties.Settings settings = new ConcurrencyLimitProperties.Settings();
+        settings.setInitialLimit(4);
+        limiter = new AimdConcurrencyLimiter(settings);
+    }
+
+    @Test
+    void testBulkShedBeforeCriticalReserve() {
+        assertTrue(controller.acquire(GROUP, limiter, QosClass.BULK).block());
+        assertTrue(controller.acquire(GROUP, limiter, QosClass.BULK).block());
+        assertFalse(controller.acquire(GROUP, limiter, QosClass.BULK).block());
+
+        assertTrue(controller.acquire(GROUP, limiter, QosClass.CRITICAL).block());
+        assertTrue(controller.acquire(GROUP, limiter, QosClass.CRITICAL).block());
+        assertEquals(1.0, meterRegistry.get("gateway.qos.shed").tag("class", "bulk").counter().count());
+    }
+
+    @Test
+    void testCriticalWaitsForReleasedSlot() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        Mono<Boolean> waiting = controller.acquire(GROUP, limiter, QosClass.CRITICAL).cache();
+        waiting.subscribe();
+        assertEquals(1, controller.queueDepth(GROUP, QosClass.CRITICAL));
+
+        limiter.release();
+        controller.onRelease(GROUP);
+
+        assertTrue(waiting.block(Duration.ofSeconds(1)));
+        assertEquals(0, controller.queueDepth(GROUP, QosClass.CRITICAL));
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void testWaitTimesOut() {
+        properties.setCritical(new QosProperties.Lane(1.0, Duration.ofMillis(20), 10));
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+
+        assertFalse(controller.acquire(GROUP, limiter, QosClass.CRITICAL).block(Duration.ofSeconds(1)));
+        assertEquals(0, controller.queueDepth(GROUP, QosClass.CRITICAL));
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void testClassification() {
+        properties.getRoutes().put("account-service-reads", QosClass.BULK);
+
+        assertEquals(QosClass.CRITICAL, properties.classify("account-service", HttpMethod.POST));
+        assertEquals(QosClass.STANDARD, properties.classify("account-service", HttpMethod.GET));
+        assertEquals(QosClass.BULK, properties.classify("account-service-reads", HttpMethod.GET));
+    }
+}
@@ -0,0 +1,97 @@
+package com.dmh.apigateway.dashboard;
+
+import com.dmh.apigateway.config.ConnectionPoolProperties;
+import com.dmh.apigateway.config.DashboardProperties;
+import com.dmh.apigateway.routing.ServiceHttpClients;
+import com.dmh.apigateway.routing.ServiceWebClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardAggregatorTest {
+
+    private Map<String, Mono<ClientResponse>> responses;
+    private Map<String, String> userIdHeaders;
+    private DashboardAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        responses = new ConcurrentHashMap<>();
+        userIdHeaders = new ConcurrentHashMap<>();
+        responses.put("/api/users/7", json("{\"id\":7,\"firstName\":\"Ana\"}"));
+        responses.put("/api/accounts/user/7", json("{\"id\":70,\"userId\":7}"));
+        responses.put("/api/accounts/70/transactions", json("[{\"id\":1}]"));
+        responses.put("/api/accounts/70/cards", json("[{\"id\":2}]"));
+
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            String path = request.url().getPath();
+            userIdHeaders.put(path, request.headers().getFirst("X-User-Id"));
+            return responses.getOrDefault(path, Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build()));
+        });
+
+        DashboardProperties properties = new DashboardProperties();
+        properties.setDefaultTimeout(Duration.ofMillis(500));
+        properties.setTimeouts(Map.of(DashboardAggregator.CARDS, Duration.ofMillis(100)));
+        ServiceWebClients serviceWebClients = new ServiceWebClients(builder,
+                new ServiceHttpClients(new ConnectionPoolProperties(), new SimpleMeterRegistry()));
+        aggregator = new DashboardAggregator(serviceWebClients, properties);
+    }
+
+    @Test
+    void testAllSectionsMerged() {
+        List<DashboardSection> sections = aggregator.aggregate(7L).block();
+
+        assertEquals(List.of("user", "account", "transactions", "cards"),
+                sections.stream().map(DashboardSection::name).toList());
+        assertTrue(sections.stream().allMatch(DashboardSection::isOk));
+        assertEquals("Ana", sections.get(0).data().get("firstName").asText());
+        assertEquals("7", userIdHeaders.get("/api/accounts/70/cards"));
+    }
+
+    @Test
+    void testSlowSectionReturnedAsPartialResult() {
+        responses.put("/api/accounts/70/cards", Mono.never());
+
+        List<DashboardSection> sections = aggregator.aggregate(7L).block(Duration.ofSeconds(5));
+        Map<String, Object> body = DashboardAggregator.toResponseBody(sections);
+
+        assertNull(body.get("cards"));
+        assertNotNull(body.get("transactions"));
+        assertEquals(Map.of("cards", "timeout"), body.get("errors"));
+    }
+
+    @Test
+    void testAccountFailureSkipsDependentSections() {
+        responses.put("/api/accounts/user/7", Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        List<DashboardSection> sections = aggregator.aggregate(7L).block();
+        Map<String, Object> body = DashboardAggregator.toResponseBody(sections);
+
+        assertNotNull(body.get("user"));
+        assertEquals(Map.of(
+                "account", "status 503",
+                "transactions", "account unavailable",
+                "cards", "account unavailable"), body.get("errors"));
+        assertFalse(userIdHeaders.containsKey("/api/accounts/70/cards"));
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
@@ -1,5 +1,9 @@
 package com.dmh.apigateway.filter;
 
+import com.dmh.apigateway.cache.RevokedTokenSet;
+import com.dmh.apigateway.cache.VerifiedToken;
+import com.dmh.apigateway.cache.VerifiedTokenCache;
+import com.dmh.apigateway.client.TokenBlacklistClient;
 import com.dmh.apigateway.util.JwtUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +19,8 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -25,6 +31,15 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Mock
+    private TokenBlacklistClient tokenBlacklistClient;
+
+    @Mock
+    private RevokedTokenSet revokedTokenSet;
+
     @Mock
     private GatewayFilterChain chain;
 
@@ -73,6 +88,23 @@ class JwtAuthenticationFilterTest {
         verify(response, times(1)).setStatusCode(org.springframework.http.HttpStatus.UNAUTHORIZED);
     }
 
+    @Test
+    void testApply_BatchValidateIsNotPublic() {
+        when(exchange.getRequest()).thenReturn(request);
+        when(request.getHeaders()).thenReturn(headers);
+        when(headers.getFirst(HttpHeaders.AUTHORIZATION)).thenReturn(null);
+        when(request.getURI()).thenReturn(URI.create("/api/users/token/validate/batch"));
+        when(exchange.getResponse()).thenReturn(response);
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.bufferFactory()).thenReturn(bufferFactory);
+        when(bufferFactory.wrap(any(byte[].class))).thenReturn(org.mockito.Mockito.mock(org.springframework.core.io.buffer.DataBuffer.class));
+
+        filter.filter(exchange, chain);
+
+        verify(response, times(1)).setStatusCode(org.springframework.http.HttpStatus.UNAUTHORIZED);
+        verify(chain, never()).filter(exchange);
+    }
+
     @Test
     void testApply_InvalidTokenFormat() {
         when(exchange.getRequest()).thenReturn(request);
@@ -96,7 +128,26 @@ class JwtAuthenticationFilterTest {
         when(request.getHeaders()).thenReturn(headers);
         when(headers.getFirst(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
         when(request.getURI()).thenReturn(URI.create("/api/accounts"));
-        when(jwtUtil.validateToken(token)).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(Optional.empty());
+        when(exchange.getResponse()).thenReturn(response);
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.bufferFactory()).thenReturn(bufferFactory);
+        when(bufferFactory.wrap(any(byte[].class))).thenReturn(org.mockito.Mockito.mock(org.springframework.core.io.buffer.DataBuffer.class));
+
+        filter.filter(exchange, chain);
+
+        verify(response, times(1)).setStatusCode(org.springframework.http.HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void testApply_CachedTokenSupersededByLogoutAll() {
+        String token = "old.session.token";
+        when(exchange.getRequest()).thenReturn(request);
+        when(request.getHeaders()).thenReturn(headers);
+        when(headers.getFirst(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
+        when(request.getURI()).thenReturn(URI.create("/api/accounts"));
+        when(verifiedTokenCache.get(token)).thenReturn(new VerifiedToken(7L, 1L, Instant.now().plusSeconds(60)));
+        when(revokedTokenSet.isSuperseded(7L, 1L)).thenReturn(true);
         when(exchange.getResponse()).thenReturn(response);
         when(response.getHeaders()).thenReturn(headers);
         when(response.bufferFactory()).thenReturn(bufferFactory);
@@ -105,5 +156,7 @@ class JwtAuthenticationFilterTest {
         filter.filter(exchange, chain);
 
         verify(response, times(1)).setStatusCode(org.springframework.http.HttpStatus.UNAUTHORIZED);
+        verify(verifiedTokenCache).invalidate(token);
+        verify(chain, never()).filter(any());
     }
 }
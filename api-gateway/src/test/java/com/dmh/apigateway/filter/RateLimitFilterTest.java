@@ -0,0 +1,78 @@
+package com.dmh.apigateway.filter;
+
+import com.dmh.apigateway.config.RateLimitProperties;
+import com.dmh.apigateway.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+    private AtomicInteger forwarded;
+    private GatewayFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(Map.of("account-service", new RateLimitProperties.Limit(1, 2)));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new TokenBucketRateLimiter(properties, meterRegistry), properties, meterRegistry);
+        forwarded = new AtomicInteger();
+        chain = exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        };
+    }
+
+    @Test
+    void testRejectsWithRetryAfterWhenBucketEmpty() {
+        filter.filter(exchange(1L), chain).block();
+        filter.filter(exchange(1L), chain).block();
+
+        MockServerWebExchange rejected = exchange(1L);
+        filter.filter(rejected, chain).block();
+
+        assertEquals(2, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("gateway.rate-limit.rejections")
+                .tag("route", "account-service").counter().count());
+    }
+
+    @Test
+    void testUsersHaveSeparateBuckets() {
+        filter.filter(exchange(1L), chain).block();
+        filter.filter(exchange(1L), chain).block();
+        filter.filter(exchange(2L), chain).block();
+
+        assertEquals(3, forwarded.get());
+    }
+
+    private MockServerWebExchange exchange(Long userId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/accounts/1"));
+        Route route = Route.async()
+                .id("account-service")
+                .uri(URI.create("lb://account-service"))
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(JwtAuthenticationFilter.USER_ID_ATTRIBUTE, userId);
+        return exchange;
+    }
+}
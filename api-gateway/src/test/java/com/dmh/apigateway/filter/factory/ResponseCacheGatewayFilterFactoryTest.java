@@ -0,0 +1,123 @@
+package com.dmh.apigateway.filter.factory;
+
+import com.dmh.apigateway.cache.ResponseCache;
+import com.dmh.apigateway.config.ConnectionPoolProperties;
+import com.dmh.apigateway.config.ResponseCacheProperties;
+import com.dmh.apigateway.filter.JwtAuthenticationFilter;
+import com.dmh.apigateway.routing.ServiceHttpClients;
+import com.dmh.apigateway.routing.ServiceWebClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final String PATH = "/api/accounts/42/cards";
+    private static final String BODY = "[{\"id\":1}]";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCache responseCache;
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // Sin ttl ni stale-while-revalidate: toda entrada guardada queda solo para stale-if-error
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setTtl(Duration.ZERO);
+        properties.setStaleWhileRevalidate(Duration.ZERO);
+        properties.setStaleIfError(Duration.ofMinutes(5));
+        properties.setPaths(List.of("/api/accounts/{id}/cards"));
+
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache = new ResponseCache(properties, meterRegistry);
+        ServiceWebClients serviceWebClients = new ServiceWebClients(WebClient.builder(),
+                new ServiceHttpClients(new ConnectionPoolProperties(), meterRegistry));
+        filter = new ResponseCacheGatewayFilterFactory(responseCache, properties, serviceWebClients).apply(new Object());
+    }
+
+    @Test
+    void testServesStaleWhenDownstreamCompletesWithoutBody() throws InterruptedException {
+        storeStaleCopy();
+        MockServerWebExchange exchange = exchange();
+
+        // Como Hedge cuando fallan los intentos: status y setComplete(), sin error
+        GatewayFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return ex.getResponse().setComplete();
+        };
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("STALE", exchange.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+        assertEquals(1.0, meterRegistry.get("gateway.response-cache.requests")
+                .tag("result", "stale_if_error").counter().count());
+    }
+
+    @Test
+    void testServesStaleWhenDownstreamErrors() throws InterruptedException {
+        storeStaleCopy();
+        MockServerWebExchange exchange = exchange();
+
+        filter.filter(exchange, ex -> Mono.error(new IllegalStateException("connection refused"))).block();
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testPassesErrorThroughWithoutCopy() {
+        MockServerWebExchange exchange = exchange();
+
+        filter.filter(exchange, ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return ex.getResponse().setComplete();
+        }).block();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+        assertNull(exchange.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void testTransferInvalidatesSourceAndDestination() {
+        responseCache.store("42", 0, "7|/api/accounts/42", responseCache.newResponse(new HttpHeaders(), new byte[0]));
+        responseCache.store("77", 0, "8|/api/accounts/77", responseCache.newResponse(new HttpHeaders(), new byte[0]));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/accounts/42/transfers"));
+
+        filter.filter(exchange, ex -> {
+            ex.getResponse().getHeaders().set(ResponseCacheGatewayFilterFactory.AFFECTED_ACCOUNTS_HEADER, "77");
+            return ex.getResponse().setComplete();
+        }).block();
+
+        assertEquals(1, responseCache.version("42"));
+        assertEquals(1, responseCache.version("77"));
+        assertFalse(exchange.getResponse().getHeaders().containsKey(ResponseCacheGatewayFilterFactory.AFFECTED_ACCOUNTS_HEADER));
+    }
+
+    private void storeStaleCopy() throws InterruptedException {
+        responseCache.store("42", 0, "7|" + PATH,
+                responseCache.newResponse(new HttpHeaders(), BODY.getBytes(StandardCharsets.UTF_8)));
+        // Que la copia tenga edad > 0 (ttl cero)
+        Thread.sleep(2);
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        exchange.getAttributes().put(JwtAuthenticationFilter.USER_ID_ATTRIBUTE, 7L);
+        return exchange;
+    }
+}
@@ -0,0 +1,42 @@
+package com.dmh.apigateway.hedge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgeBudgetTest {
+
+    @Test
+    void testHedgesLimitedToBudgetPercent() {
+        HedgeBudget budget = new HedgeBudget(10, 20, new SimpleMeterRegistry());
+
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+            if (budget.tryAcquire()) {
+                hedges++;
+            }
+        }
+
+        assertEquals(100, hedges);
+    }
+
+    @Test
+    void testBalanceCappedAtMaxCredits() {
+        HedgeBudget budget = new HedgeBudget(50, 3, new SimpleMeterRegistry());
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+        }
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void testEmptyBudgetRejects() {
+        assertFalse(new HedgeBudget(10, 20, new SimpleMeterRegistry()).tryAcquire());
+    }
+}
@@ -0,0 +1,41 @@
+package com.dmh.apigateway.hedge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyPercentileTrackerTest {
+
+    @Test
+    void testNoPercentileUntilMinSamples() {
+        LatencyPercentileTracker tracker = new LatencyPercentileTracker(100, 0.95, 10);
+        for (int i = 0; i < 9; i++) {
+            tracker.record(1_000);
+        }
+        assertEquals(-1, tracker.percentileNanos());
+
+        tracker.record(1_000);
+        assertEquals(1_000, tracker.percentileNanos());
+    }
+
+    @Test
+    void testPercentileOfWindow() {
+        LatencyPercentileTracker tracker = new LatencyPercentileTracker(100, 0.95, 10);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+        assertEquals(95, tracker.percentileNanos());
+    }
+
+    @Test
+    void testOldSamplesLeaveTheWindow() {
+        LatencyPercentileTracker tracker = new LatencyPercentileTracker(100, 0.95, 10);
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1_000_000);
+        }
+        for (int i = 0; i < 100; i++) {
+            tracker.record(10);
+        }
+        assertEquals(10, tracker.percentileNanos());
+    }
+}
@@ -0,0 +1,103 @@
+package com.dmh.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    @Test
+    void testRemovingInstanceOnlyMovesItsKeys() {
+        List<ServiceInstance> instances = instances(5);
+        ConsistentHashRing before = new ConsistentHashRing(instances, 160);
+        ConsistentHashRing after = new ConsistentHashRing(instances.subList(0, 4), 160);
+
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "account:" + i;
+            ServiceInstance owner = before.locate(key, instance -> true);
+            ServiceInstance newOwner = after.locate(key, instance -> true);
+            if (owner != instances.get(4)) {
+                assertSame(owner, newOwner);
+            } else {
+                moved++;
+            }
+        }
+        // ~1/5 de las claves, con margen por el reparto de los puntos
+        assertTrue(moved > 1_000 && moved < 3_000, "moved " + moved);
+    }
+
+    @Test
+    void testKeysSpreadAcrossInstances() {
+        List<ServiceInstance> instances = instances(4);
+        ConsistentHashRing ring = new ConsistentHashRing(instances, 160);
+
+        Map<ServiceInstance, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            counts.merge(ring.locate("account:" + i, instance -> true), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 1_500 && count < 3_500, "count " + count));
+    }
+
+    @Test
+    void testSkipsIneligibleOwner() {
+        List<ServiceInstance> instances = instances(3);
+        ConsistentHashRing ring = new ConsistentHashRing(instances, 160);
+        ServiceInstance owner = ring.locate("account:42", instance -> true);
+
+        ServiceInstance fallback = ring.locate("account:42", instance -> instance != owner);
+
+        assertNotNull(fallback);
+        assertNotSame(owner, fallback);
+        assertNull(ring.locate("account:42", instance -> false));
+    }
+
+    @Test
+    void testLoadBalancerKeepsAccountOnSameInstance() {
+        List<ServiceInstance> instances = instances(3);
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofMinutes(10));
+        OutlierDetector outlierDetector = new OutlierDetector(registry, new SimpleMeterRegistry(), true,
+                5, 5, 3.0, Duration.ofMillis(200), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30), 50);
+        AffinityKeyResolver affinity = new AffinityKeyResolver(true, List.of("account-service"), 160, 1.25);
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider("account-service", instances.toArray(ServiceInstance[]::new)),
+                "account-service", registry, outlierDetector, affinity);
+
+        ServiceInstance first = choose(loadBalancer, "/api/accounts/42/activity");
+        for (int i = 0; i < 20; i++) {
+            assertSame(first, choose(loadBalancer, "/api/accounts/42/cards"));
+        }
+    }
+
+    private static ServiceInstance choose(LatencyAwareLoadBalancer loadBalancer, String path) {
+        RequestData data = new RequestData(HttpMethod.GET, URI.create("http://account-service" + path),
+                new HttpHeaders(), new HttpHeaders(), Map.of());
+        return loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(data))).block().getServer();
+    }
+
+    private static List<ServiceInstance> instances(int count) {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            instances.add(new DefaultServiceInstance("instance-" + i, "account-service", "10.0.0." + (i + 1), 8080, false));
+        }
+        return instances;
+    }
+}
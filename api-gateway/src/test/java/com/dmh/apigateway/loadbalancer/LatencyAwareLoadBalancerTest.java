@@ -0,0 +1,118 @@
+package com.dmh.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyAwareLoadBalancerTest {
+
+    private final ServiceInstance fast = instance("fast", 8081);
+    private final ServiceInstance slow = instance("slow", 8082);
+
+    private InstanceStatsRegistry registry;
+    private InstanceStatsLifecycle lifecycle;
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InstanceStatsRegistry(Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofMinutes(10));
+        OutlierDetector outlierDetector = new OutlierDetector(registry, new SimpleMeterRegistry(), true,
+                5, 5, 3.0, Duration.ofMillis(200), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30), 50);
+        lifecycle = new InstanceStatsLifecycle(registry, outlierDetector, Duration.ofSeconds(1));
+        loadBalancer = new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider("account-service", fast, slow), "account-service",
+                registry, outlierDetector);
+    }
+
+    @Test
+    void testPrefersLowerLatencyInstance() {
+        long now = System.nanoTime();
+        registry.statsFor(fast).recordLatency(TimeUnit.MILLISECONDS.toNanos(5), now);
+        registry.statsFor(slow).recordLatency(TimeUnit.MILLISECONDS.toNanos(500), now);
+
+        Map<String, Integer> picks = pick(100);
+
+        assertEquals(100, picks.get("fast"));
+    }
+
+    @Test
+    void testPrefersInstanceWithFewerOutstandingRequests() {
+        long now = System.nanoTime();
+        registry.statsFor(fast).recordLatency(TimeUnit.MILLISECONDS.toNanos(10), now);
+        registry.statsFor(slow).recordLatency(TimeUnit.MILLISECONDS.toNanos(10), now);
+        for (int i = 0; i < 5; i++) {
+            registry.statsFor(fast).onStart(new Object(), now);
+        }
+
+        assertEquals(100, pick(100).get("slow"));
+    }
+
+    @Test
+    void testLifecycleTracksOutstandingAndLatency() {
+        Request<Object> request = new DefaultRequest<>();
+        Response<ServiceInstance> response = new DefaultResponse(fast);
+
+        lifecycle.onStartRequest(request, response);
+        assertEquals(1, registry.statsFor(fast).getOutstanding());
+
+        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+
+        InstanceStats stats = registry.statsFor(fast);
+        assertEquals(0, stats.getOutstanding());
+        assertEquals(1, stats.getRequests());
+        assertTrue(stats.getEwmaNanos() > 0);
+    }
+
+    @Test
+    void testFailureRecordedWithPenaltyLatency() {
+        Request<Object> request = new DefaultRequest<>();
+        Response<ServiceInstance> response = new DefaultResponse(fast);
+
+        lifecycle.onStartRequest(request, response);
+        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED,
+                new IllegalStateException("connection refused"), request, response));
+
+        InstanceStats stats = registry.statsFor(fast);
+        assertEquals(1, stats.getFailures());
+        assertTrue(stats.getEwmaNanos() >= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void testEwmaDecaysTowardFasterSamples() {
+        InstanceStats stats = registry.statsFor(fast);
+        long now = System.nanoTime();
+        stats.recordLatency(TimeUnit.MILLISECONDS.toNanos(500), now);
+
+        stats.recordLatency(TimeUnit.MILLISECONDS.toNanos(10), now + TimeUnit.SECONDS.toNanos(30));
+
+        assertTrue(stats.getEwmaNanos() < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    private Map<String, Integer> pick(int times) {
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            picks.merge(chosen.getInstanceId(), 1, Integer::sum);
+        }
+        return picks;
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "account-service", "10.0.0.1", port, false);
+    }
+}
@@ -0,0 +1,136 @@
+package com.dmh.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutlierDetectorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BASE_EJECTION = TimeUnit.SECONDS.toNanos(30);
+    private static final long RAMP_UP = TimeUnit.SECONDS.toNanos(30);
+
+    private final ServiceInstance a = instance("a", 8081);
+    private final ServiceInstance b = instance("b", 8082);
+    private final ServiceInstance c = instance("c", 8083);
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstanceStatsRegistry registry;
+    private OutlierDetector detector;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new InstanceStatsRegistry(Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofMinutes(10));
+        detector = new OutlierDetector(registry, meterRegistry, true,
+                3, 3, 3.0, Duration.ofMillis(200), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30), 50);
+        now = System.nanoTime();
+        for (ServiceInstance instance : List.of(a, b, c)) {
+            InstanceStats stats = registry.statsFor(instance);
+            stats.onStart(new Object(), now);
+            stats.recordLatency(50 * MS, now);
+        }
+    }
+
+    @Test
+    void testConsecutiveErrorsEjectInstance() {
+        InstanceStats stats = registry.statsFor(a);
+        for (int i = 0; i < 3; i++) {
+            detector.onResult(stats, true, 10 * MS, now);
+        }
+
+        assertTrue(stats.isEjected(now));
+        assertEquals(List.of(b, c), detector.filterAvailable(List.of(a, b, c), now));
+        assertEquals(1.0, meterRegistry.get("gateway.lb.ejections")
+                .tag("service", "account-service").tag("reason", "errors").counter().count());
+    }
+
+    @Test
+    void testSuccessResetsErrorStreak() {
+        InstanceStats stats = registry.statsFor(a);
+        detector.onResult(stats, true, 10 * MS, now);
+        detector.onResult(stats, true, 10 * MS, now);
+        detector.onResult(stats, false, 10 * MS, now);
+        detector.onResult(stats, true, 10 * MS, now);
+
+        assertFalse(stats.isEjected(now));
+    }
+
+    @Test
+    void testLatencyExcursionsEjectInstance() {
+        InstanceStats stats = registry.statsFor(a);
+        for (int i = 0; i < 3; i++) {
+            detector.onResult(stats, false, 400 * MS, now);
+        }
+
+        assertTrue(stats.isEjected(now));
+        assertEquals(1.0, meterRegistry.get("gateway.lb.ejections").tag("reason", "latency").counter().count());
+    }
+
+    @Test
+    void testSlowButBelowMinimumIsNotExcursion() {
+        InstanceStats stats = registry.statsFor(a);
+        for (int i = 0; i < 5; i++) {
+            detector.onResult(stats, false, 180 * MS, now);
+        }
+
+        assertFalse(stats.isEjected(now));
+    }
+
+    @Test
+    void testEjectionBackoffDoublesAndReadmissionIsGradual() {
+        InstanceStats stats = registry.statsFor(a);
+        ejectByErrors(stats, now);
+        long firstUntil = stats.getEjectedUntilNanos();
+        assertEquals(now + BASE_EJECTION, firstUntil);
+
+        long readmitted = firstUntil + 1;
+        assertFalse(stats.isEjected(readmitted));
+        int admitted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (detector.isAvailable(stats, readmitted)) {
+                admitted++;
+            }
+        }
+        assertTrue(admitted > 0 && admitted < 300, "admitted " + admitted);
+        assertTrue(detector.isAvailable(stats, firstUntil + RAMP_UP));
+
+        ejectByErrors(stats, readmitted);
+        assertEquals(readmitted + 2 * BASE_EJECTION, stats.getEjectedUntilNanos());
+    }
+
+    @Test
+    void testMaxEjectionPercentKeepsHalfThePool() {
+        ejectByErrors(registry.statsFor(a), now);
+        ejectByErrors(registry.statsFor(b), now);
+
+        assertTrue(registry.statsFor(a).isEjected(now));
+        assertFalse(registry.statsFor(b).isEjected(now));
+    }
+
+    @Test
+    void testAllEjectedFallsBackToFullList() {
+        ejectByErrors(registry.statsFor(a), now);
+
+        assertEquals(List.of(a), detector.filterAvailable(List.of(a), now));
+    }
+
+    private void ejectByErrors(InstanceStats stats, long at) {
+        for (int i = 0; i < 3; i++) {
+            detector.onResult(stats, true, 10 * MS, at);
+        }
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "account-service", "10.0.0.1", port, false);
+    }
+}
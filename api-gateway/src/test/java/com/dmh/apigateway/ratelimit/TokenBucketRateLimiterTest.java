@@ -0,0 +1,72 @@
+package com.dmh.apigateway.ratelimit;
+
+import com.dmh.apigateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final RateLimitProperties.Limit limit = new RateLimitProperties.Limit(10, 5);
+    private AtomicLong clock;
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+        rateLimiter = new TokenBucketRateLimiter(new RateLimitProperties(), new SimpleMeterRegistry(), clock::get);
+    }
+
+    @Test
+    void testBurstAllowedThenRejected() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("user:1", limit));
+        }
+
+        long wait = rateLimiter.tryAcquire("user:1", limit);
+        assertTrue(wait > 0);
+        assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void testTokensReplenishOverTime() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire("user:1", limit);
+        }
+        assertTrue(rateLimiter.tryAcquire("user:1", limit) > 0);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(0, rateLimiter.tryAcquire("user:1", limit));
+        assertTrue(rateLimiter.tryAcquire("user:1", limit) > 0);
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire("user:1", limit);
+        }
+
+        assertTrue(rateLimiter.tryAcquire("user:1", limit) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("user:2", limit));
+    }
+
+    @Test
+    void testIdleBucketRefillsToBurstCapacity() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire("user:1", limit);
+        }
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("user:1", limit));
+        }
+        assertTrue(rateLimiter.tryAcquire("user:1", limit) > 0);
+    }
+}
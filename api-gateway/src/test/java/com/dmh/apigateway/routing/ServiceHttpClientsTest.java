@@ -0,0 +1,99 @@
+package com.dmh.apigateway.routing;
+
+import com.dmh.apigateway.config.ConnectionPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga chica: con el pool de un servicio saturado por un backend
+ * lento, las requests a otro servicio siguen saliendo sin esperar.
+ */
+class ServiceHttpClientsTest {
+
+    private DisposableServer slowServer;
+    private DisposableServer fastServer;
+    private SimpleMeterRegistry meterRegistry;
+    private ServiceHttpClients clients;
+
+    @BeforeEach
+    void setUp() {
+        slowServer = HttpServer.create().port(0)
+                .handle((request, response) -> response.sendString(Mono.delay(Duration.ofMillis(800)).thenReturn("slow")))
+                .bindNow();
+        fastServer = HttpServer.create().port(0)
+                .handle((request, response) -> response.sendString(Mono.just("fast")))
+                .bindNow();
+
+        ConnectionPoolProperties.Pool slowPool = new ConnectionPoolProperties.Pool();
+        slowPool.setMaxConnections(2);
+        slowPool.setPendingAcquireMaxCount(2);
+        slowPool.setPendingAcquireTimeout(Duration.ofSeconds(5));
+        ConnectionPoolProperties properties = new ConnectionPoolProperties();
+        properties.getServices().put("slow-service", slowPool);
+
+        meterRegistry = new SimpleMeterRegistry();
+        clients = new ServiceHttpClients(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.destroy();
+        slowServer.disposeNow();
+        fastServer.disposeNow();
+    }
+
+    @Test
+    void testSaturatedServiceDoesNotDelayOthers() {
+        HttpClient slow = clients.forService("slow-service");
+        HttpClient fast = clients.forService("fast-service");
+
+        Mono<List<String>> slowLoad = Flux.range(0, 20)
+                .flatMap(i -> get(slow, slowServer).onErrorReturn("rejected"), 20)
+                .collectList()
+                .cache();
+        slowLoad.subscribe();
+
+        long start = System.nanoTime();
+        List<String> fastResults = Flux.range(0, 50)
+                .flatMap(i -> get(fast, fastServer), 50)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        long fastMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(50, fastResults.size());
+        assertTrue(fastMillis < 700, "fast service took " + fastMillis + "ms");
+
+        List<String> slowResults = slowLoad.block(Duration.ofSeconds(10));
+        // 2 conexiones + 2 en espera; el resto falla en el acto por pending-acquire-max-count
+        assertEquals(4, slowResults.stream().filter("slow"::equals).count());
+        assertEquals(16, slowResults.stream().filter("rejected"::equals).count());
+    }
+
+    @Test
+    void testPoolMetricsTaggedByService() {
+        get(clients.forService("fast-service"), fastServer).block(Duration.ofSeconds(5));
+
+        assertNotNull(meterRegistry.find("gateway.http.pool.idle").tag("service", "fast-service").gauge());
+        assertNotNull(meterRegistry.find("gateway.http.pool.acquired").tag("service", "fast-service").gauge());
+    }
+
+    private static Mono<String> get(HttpClient client, DisposableServer server) {
+        return client.get()
+                .uri("http://localhost:" + server.port() + "/")
+                .responseContent()
+                .aggregate()
+                .asString();
+    }
+}
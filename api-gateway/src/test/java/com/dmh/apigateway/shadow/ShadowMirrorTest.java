@@ -0,0 +1,93 @@
+package com.dmh.apigateway.shadow;
+
+import com.dmh.apigateway.config.ConnectionPoolProperties;
+import com.dmh.apigateway.routing.ServiceHttpClients;
+import com.dmh.apigateway.routing.ServiceWebClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShadowMirrorTest {
+
+    private static final String BODY = "{\"id\":42}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicReference<ClientRequest> shadowRequest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        shadowRequest = new AtomicReference<>();
+    }
+
+    @Test
+    void testMatchingResponses() {
+        mirror(HttpStatus.OK, BODY).mirror("account-service-reads", "account-service-shadow",
+                request(), Mono.just(primary(200, BODY)));
+
+        assertEquals(1.0, comparisons("match"));
+        assertEquals("http://account-service-shadow/api/accounts/42/cards?page=1", shadowRequest.get().url().toString());
+        assertEquals("true", shadowRequest.get().headers().getFirst(ShadowMirror.SHADOW_HEADER));
+        assertEquals(1, meterRegistry.get("gateway.shadow.latency").tag("target", "shadow").timer().count());
+    }
+
+    @Test
+    void testStatusAndBodyMismatches() {
+        mirror(HttpStatus.INTERNAL_SERVER_ERROR, BODY).mirror("account-service-reads", "account-service-shadow",
+                request(), Mono.just(primary(200, BODY)));
+        mirror(HttpStatus.OK, "{\"id\":43}").mirror("account-service-reads", "account-service-shadow",
+                request(), Mono.just(primary(200, BODY)));
+
+        assertEquals(1.0, comparisons("status_mismatch"));
+        assertEquals(1.0, comparisons("body_mismatch"));
+    }
+
+    @Test
+    void testHashOfSplitBodyMatchesWholeBody() {
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        Flux<DataBuffer> split = Flux.just(factory.wrap("{\"id\"".getBytes()), factory.wrap(":42}".getBytes()));
+
+        assertArrayEquals(ShadowMirror.hash(Flux.just(factory.wrap(BODY.getBytes()))).block(),
+                ShadowMirror.hash(split).block());
+    }
+
+    private ShadowMirror mirror(HttpStatus status, String body) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            shadowRequest.set(request);
+            return Mono.just(ClientResponse.create(status).body(body).build());
+        });
+        ServiceWebClients serviceWebClients = new ServiceWebClients(builder,
+                new ServiceHttpClients(new ConnectionPoolProperties(), meterRegistry));
+        return new ShadowMirror(serviceWebClients, meterRegistry, Duration.ofSeconds(1), 10);
+    }
+
+    private static MockServerHttpRequest request() {
+        return MockServerHttpRequest.get("http://gateway/api/accounts/42/cards?page=1")
+                .header("X-User-Id", "7")
+                .build();
+    }
+
+    private static ShadowMirror.Result primary(int status, String body) {
+        byte[] hash = ShadowMirror.sha256().digest(body.getBytes(StandardCharsets.UTF_8));
+        return new ShadowMirror.Result(status, hash, 1_000_000);
+    }
+
+    private double comparisons(String result) {
+        return meterRegistry.get("gateway.shadow.comparisons").tag("result", result).counter().count();
+    }
+}
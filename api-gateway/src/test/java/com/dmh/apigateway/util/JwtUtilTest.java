@@ -1,5 +1,6 @@
 package com.dmh.apigateway.util;
 
+import com.dmh.jwt.VerifiedClaims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -7,7 +8,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
@@ -26,8 +26,7 @@ class JwtUtilTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil();
-        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        jwtUtil = new JwtUtil(SECRET);
     }
 
     private String generateTestToken(String email, Long userId, long expirationMillis) {
@@ -86,6 +85,24 @@ class JwtUtilTest {
         assertFalse(jwtUtil.validateToken(token));
     }
 
+    @Test
+    void testVerify_SingleParseReturnsClaims() {
+        String token = generateTestToken("test@example.com", 7L, EXPIRATION);
+
+        VerifiedClaims claims = jwtUtil.verify(token).orElseThrow();
+
+        assertEquals(7L, claims.userId());
+        assertEquals("test@example.com", claims.subject());
+        assertNotNull(claims.expiresAt());
+    }
+
+    @Test
+    void testVerify_Expired() {
+        String token = generateTestToken("test@example.com", 1L, -1000);
+
+        assertTrue(jwtUtil.verify(token).isEmpty());
+    }
+
     @Test
     void testValidateToken_Expired() {
         String token = generateTestToken("test@example.com", 1L, -1000);
@@ -0,0 +1,21 @@
+package com.dmh.jwt;
+
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+
+/**
+ * Construcción de la clave HMAC-SHA256 a partir de jwt.secret.
+ *
+ * Todos los servicios deben usar el MISMO secret.
+ */
+public final class JwtKeys {
+
+    private JwtKeys() {
+    }
+
+    public static Key hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
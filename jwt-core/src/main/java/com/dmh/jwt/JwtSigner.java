@@ -0,0 +1,37 @@
+package com.dmh.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Firma tokens JWT con HMAC-SHA256 usando una clave construida una sola vez.
+ */
+public final class JwtSigner {
+
+    private final Key key;
+
+    public JwtSigner(String secret) {
+        this.key = JwtKeys.hmacKey(secret);
+    }
+
+    /**
+     * Estructura del token:
+     * - Header: algoritmo (HS256) y tipo (JWT)
+     * - Payload: claims custom, subject, issued at, expiration
+     * - Signature: HMAC-SHA256 con el secret compartido
+     */
+    public String sign(Map<String, Object> claims, String subject, Instant issuedAt, Instant expiresAt) {
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(subject)
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
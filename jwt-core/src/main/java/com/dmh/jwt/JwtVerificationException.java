@@ -0,0 +1,20 @@
+package com.dmh.jwt;
+
+/**
+ * El token no pasó la verificación.
+ *
+ * isExpired() distingue un token vencido (firma válida) de uno inválido.
+ */
+public class JwtVerificationException extends RuntimeException {
+
+    private final boolean expired;
+
+    public JwtVerificationException(String message, boolean expired, Throwable cause) {
+        super(message, cause);
+        this.expired = expired;
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+}
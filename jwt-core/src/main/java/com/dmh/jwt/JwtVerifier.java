@@ -0,0 +1,57 @@
+package com.dmh.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import java.security.Key;
+import java.util.Optional;
+
+/**
+ * Verifica tokens JWT firmados con HMAC-SHA256.
+ *
+ * La clave y el parser se construyen una sola vez (el parser de jjwt es
+ * inmutable y thread-safe); cada verificación hace un único parseo que
+ * valida firma y expiración y devuelve los claims ya extraídos.
+ */
+public final class JwtVerifier {
+
+    private final JwtParser parser;
+
+    public JwtVerifier(String secret) {
+        this(JwtKeys.hmacKey(secret));
+    }
+
+    public JwtVerifier(Key key) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    /**
+     * Verifica firma y expiración.
+     *
+     * @throws JwtVerificationException si el token es inválido o expiró
+     */
+    public VerifiedClaims verify(String token) {
+        try {
+            return VerifiedClaims.from(parser.parseClaimsJws(token).getBody());
+        } catch (ExpiredJwtException e) {
+            throw new JwtVerificationException("Token expired", true, e);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new JwtVerificationException("Invalid token: " + e.getMessage(), false, e);
+        }
+    }
+
+    /**
+     * Igual que verify pero sin excepción: vacío si el token no es válido.
+     */
+    public Optional<VerifiedClaims> tryVerify(String token) {
+        try {
+            return Optional.of(verify(token));
+        } catch (JwtVerificationException e) {
+            return Optional.empty();
+        }
+    }
+}
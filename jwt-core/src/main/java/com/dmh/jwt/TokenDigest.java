@@ -0,0 +1,29 @@
+package com.dmh.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Calcula el digest SHA-256 (hex) de un token JWT.
+ *
+ * Es la representación compartida de un token en caches, blacklist y
+ * feed de revocaciones: ningún componente necesita retener el token completo.
+ */
+public final class TokenDigest {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private TokenDigest() {
+    }
+
+    public static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
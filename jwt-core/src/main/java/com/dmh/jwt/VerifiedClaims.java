@@ -0,0 +1,36 @@
+package com.dmh.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/**
+ * Claims de un token cuya firma y expiración ya fueron verificadas.
+ *
+ * Inmutable: se obtiene de un único parseo y puede compartirse entre threads.
+ *
+ * tokenVersion es la época de tokens del usuario al emitirlo (claim "ver"):
+ * un "logout en todos lados" sube la época e invalida los tokens anteriores.
+ * Los tokens emitidos antes de existir el claim cuentan como versión 0.
+ *
+ * sessionId es la familia de refresh tokens de la sesión (claim "sid"): el
+ * logout de esa sesión revoca también sus refresh tokens. Null si no tiene.
+ */
+public record VerifiedClaims(String subject, Long userId, String email, Instant issuedAt, Instant expiresAt,
+                             long tokenVersion, String sessionId) {
+
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+    public static final String SESSION_ID_CLAIM = "sid";
+
+    static VerifiedClaims from(Claims claims) {
+        Long tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Long.class);
+        return new VerifiedClaims(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("email", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                tokenVersion != null ? tokenVersion : 0L,
+                claims.get(SESSION_ID_CLAIM, String.class));
+    }
+}
@@ -0,0 +1,78 @@
+package com.dmh.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por verificación de un token en el gateway.
+ *
+ * - legacyGatewayValidation: lo que hacía JwtUtil antes de jwt-core. Reconstruye
+ *   la clave y el parser en cada llamada y parsea tres veces (validateToken,
+ *   isTokenExpired, extractUserId).
+ * - singleParseVerification: JwtVerifier con clave y parser cacheados y un único parseo.
+ *
+ * Correr con: mvn -pl jwt-core -P benchmark test-compile exec:exec
+ * (incluye -prof gc para ver gc.alloc.rate.norm = bytes asignados por op).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "YWJjZGVmZ2hpamtsbW5vcHFyc3R1dnd4eXoxMjM0NTY3ODkwYWJjZGVmZ2hpamtsbW5vcA==";
+
+    private String token;
+    private JwtVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        token = new JwtSigner(SECRET).sign(Map.of("userId", 42L, "email", "bench@example.com"),
+                "bench@example.com", now, now.plusSeconds(3600));
+        verifier = new JwtVerifier(SECRET);
+    }
+
+    @Benchmark
+    public Long legacyGatewayValidation() {
+        legacyParse(token);
+        if (legacyParse(token).getExpiration().before(new Date())) {
+            return null;
+        }
+        return legacyParse(token).get("userId", Long.class);
+    }
+
+    @Benchmark
+    public Long singleParseVerification() {
+        return verifier.verify(token).userId();
+    }
+
+    private Claims legacyParse(String jwt) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
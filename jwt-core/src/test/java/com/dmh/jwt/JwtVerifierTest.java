@@ -0,0 +1,83 @@
+package com.dmh.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "testSecretKey12345678901234567890";
+
+    private final JwtSigner signer = new JwtSigner(SECRET);
+    private final JwtVerifier verifier = new JwtVerifier(SECRET);
+
+    @Test
+    void testVerify_ReturnsAllClaimsFromSingleParse() {
+        Instant now = Instant.now();
+        String token = signer.sign(Map.of("userId", 5L, "email", "test@example.com"),
+                "test@example.com", now, now.plusSeconds(3600));
+
+        VerifiedClaims claims = verifier.verify(token);
+
+        assertEquals(5L, claims.userId());
+        assertEquals("test@example.com", claims.subject());
+        assertEquals("test@example.com", claims.email());
+        assertEquals(now.getEpochSecond(), claims.issuedAt().getEpochSecond());
+        assertEquals(now.plusSeconds(3600).getEpochSecond(), claims.expiresAt().getEpochSecond());
+    }
+
+    @Test
+    void testVerify_IntegerUserIdClaimIsReturnedAsLong() {
+        Instant now = Instant.now();
+        String token = signer.sign(Map.of("userId", 5), "test@example.com", now, now.plusSeconds(60));
+
+        assertEquals(5L, verifier.verify(token).userId());
+    }
+
+    @Test
+    void testVerify_TokenVersionClaim() {
+        Instant now = Instant.now();
+        String withVersion = signer.sign(Map.of("userId", 5L, VerifiedClaims.TOKEN_VERSION_CLAIM, 3),
+                "test@example.com", now, now.plusSeconds(60));
+        String withoutVersion = signer.sign(Map.of("userId", 5L), "test@example.com", now, now.plusSeconds(60));
+
+        assertEquals(3L, verifier.verify(withVersion).tokenVersion());
+        assertEquals(0L, verifier.verify(withoutVersion).tokenVersion());
+    }
+
+    @Test
+    void testVerify_Expired() {
+        Instant past = Instant.now().minusSeconds(120);
+        String token = signer.sign(Map.of("userId", 1L), "test@example.com", past, past.plusSeconds(60));
+
+        JwtVerificationException ex = assertThrows(JwtVerificationException.class, () -> verifier.verify(token));
+        assertTrue(ex.isExpired());
+    }
+
+    @Test
+    void testVerify_WrongSignature() {
+        Instant now = Instant.now();
+        String token = new JwtSigner("anotherSecretKey1234567890123456789").sign(
+                Map.of("userId", 1L), "test@example.com", now, now.plusSeconds(60));
+
+        JwtVerificationException ex = assertThrows(JwtVerificationException.class, () -> verifier.verify(token));
+        assertFalse(ex.isExpired());
+    }
+
+    @Test
+    void testTryVerify_Malformed() {
+        assertTrue(verifier.tryVerify("invalid.token.here").isEmpty());
+    }
+
+    @Test
+    void testTokenDigest_IsStableHex() {
+        String digest = TokenDigest.sha256("header.payload.signature");
+
+        assertEquals(64, digest.length());
+        assertEquals(digest, TokenDigest.sha256("header.payload.signature"));
+        assertNotEquals(digest, TokenDigest.sha256("header.payload.other"));
+    }
+}
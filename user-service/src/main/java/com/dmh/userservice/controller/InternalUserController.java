@@ -0,0 +1,56 @@
+package com.dmh.userservice.controller;
+
+import com.dmh.userservice.service.AccountProvisioningDispatcher;
+import com.dmh.userservice.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Endpoints para otros servicios del sistema, no para clientes.
+ *
+ * El API Gateway bloquea /api/users/internal/**; solo se llega por Eureka
+ * desde dentro de la red.
+ */
+@RestController
+@RequestMapping("/api/users/internal")
+public class InternalUserController {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternalUserController.class);
+
+    private final UserService userService;
+    private final AccountProvisioningDispatcher accountProvisioningDispatcher;
+
+    public InternalUserController(UserService userService,
+                                  AccountProvisioningDispatcher accountProvisioningDispatcher) {
+        this.userService = userService;
+        this.accountProvisioningDispatcher = accountProvisioningDispatcher;
+    }
+
+    /**
+     * Aviso de account-service: cambiaron los datos de la cuenta del usuario (alias).
+     */
+    @PostMapping("/{userId}/account-changed")
+    public ResponseEntity<Void> accountChanged(@PathVariable Long userId) {
+        logger.debug("POST /api/users/internal/{}/account-changed", userId);
+        userService.onAccountChanged(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Reencola las altas de cuenta en FAILED (todas, o solo la del usuario).
+     */
+    @PostMapping("/account-provisioning/requeue")
+    public ResponseEntity<Map<String, Integer>> requeueFailedProvisioning(
+            @RequestParam(value = "userId", required = false) Long userId) {
+        logger.info("POST /api/users/internal/account-provisioning/requeue - userId: {}", userId);
+        return ResponseEntity.ok(Map.of("requeued", accountProvisioningDispatcher.requeueFailed(userId)));
+    }
+}
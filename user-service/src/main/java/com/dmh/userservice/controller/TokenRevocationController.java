@@ -0,0 +1,43 @@
+package com.dmh.userservice.controller;
+
+import com.dmh.userservice.service.TokenRevocationFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Feed de revocaciones consumido por el API Gateway.
+ *
+ * El cursor puede enviarse como header estándar de SSE (Last-Event-ID)
+ * o como query param "since". Sin cursor se envía un resync completo.
+ *
+ * Va bajo /api/users/internal: el gateway no lo expone a clientes (lleva
+ * digests revocados y userIds); el suyo se conecta directo por Eureka.
+ */
+@RestController
+@RequestMapping("/api/users/internal/token/revocations")
+public class TokenRevocationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationController.class);
+
+    private final TokenRevocationFeed tokenRevocationFeed;
+
+    public TokenRevocationController(TokenRevocationFeed tokenRevocationFeed) {
+        this.tokenRevocationFeed = tokenRevocationFeed;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRevocations(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(value = "since", required = false) Long since) {
+        Long cursor = lastEventId != null ? lastEventId : since;
+        logger.info("GET /api/users/internal/token/revocations/stream - Subscriber connected (cursor: {})", cursor);
+        return tokenRevocationFeed.subscribe(cursor);
+    }
+}
@@ -1,12 +1,18 @@
 package com.dmh.userservice.controller;
 
+import com.dmh.userservice.dto.AccountProvisioningResponse;
 import com.dmh.userservice.dto.LoginRequest;
 import com.dmh.userservice.dto.LoginResponse;
 import com.dmh.userservice.dto.LogoutResponse;
+import com.dmh.userservice.dto.RefreshTokenRequest;
 import com.dmh.userservice.dto.RegisterUserRequest;
+import com.dmh.userservice.dto.TokenValidationBatchRequest;
+import com.dmh.userservice.dto.TokenValidationBatchResponse;
 import com.dmh.userservice.dto.UpdateUserRequest;
 import com.dmh.userservice.dto.UserResponse;
 import com.dmh.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,9 +29,14 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final Timer batchValidation;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, MeterRegistry meterRegistry) {
         this.userService = userService;
+        this.batchValidation = Timer.builder("user.token-validation.batch")
+                .description("Latencia del endpoint de validación en lote de tokens")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
 
     @PostMapping("/register")
@@ -42,6 +53,13 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/token/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        logger.debug("POST /api/users/token/refresh");
+        LoginResponse response = userService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<LogoutResponse> logout(
             @RequestHeader("Authorization") String authHeader,
@@ -54,6 +72,18 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/logout-all")
+    public ResponseEntity<LogoutResponse> logoutAll(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader("X-User-Id") Long authenticatedUserId) {
+        logger.info("POST /api/users/logout-all - Revoking all sessions for user: {}", authenticatedUserId);
+
+        String token = extractTokenFromHeader(authHeader);
+
+        LogoutResponse response = userService.logoutAll(token);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/token/validate")
     public ResponseEntity<Map<String, Boolean>> validateToken(@RequestParam("token") String token) {
         logger.debug("GET /api/users/token/validate - Validating token");
@@ -61,6 +91,13 @@ public class UserController {
         return ResponseEntity.ok(Map.of("valid", isValid));
     }
 
+    @PostMapping("/token/validate/batch")
+    public ResponseEntity<TokenValidationBatchResponse> validateTokens(
+            @Valid @RequestBody TokenValidationBatchRequest request) {
+        logger.debug("POST /api/users/token/validate/batch - Validating {} digests", request.getDigests().size());
+        return ResponseEntity.ok(batchValidation.record(() -> userService.validateTokens(request.getDigests())));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(
             @PathVariable Long id,
@@ -77,6 +114,20 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/account")
+    public ResponseEntity<AccountProvisioningResponse> getAccountProvisioning(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") Long authenticatedUserId) {
+        logger.debug("GET /api/users/{}/account - Fetching account provisioning status", id);
+
+        if (!authenticatedUserId.equals(id)) {
+            logger.warn("User {} attempted to access account status of user {}", authenticatedUserId, id);
+            throw new IllegalArgumentException("You can only access your own account");
+        }
+
+        return ResponseEntity.ok(userService.getAccountProvisioning(id));
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable Long id,
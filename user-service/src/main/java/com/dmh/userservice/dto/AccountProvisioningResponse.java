@@ -0,0 +1,19 @@
+package com.dmh.userservice.dto;
+
+import com.dmh.userservice.entity.ProvisioningStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountProvisioningResponse {
+
+    private Long userId;
+    private ProvisioningStatus status;
+    private String cvu;
+    private String alias;
+}
@@ -9,10 +9,12 @@ import lombok.NoArgsConstructor;
  * Response DTO para el login exitoso.
  * 
  * Contiene:
- * - token: JWT token para autenticación
+ * - token: JWT token para autenticación (de vida corta)
+ * - refreshToken: token opaco para renovar el JWT en /api/users/token/refresh (se rota en cada uso)
  * - userId: ID del usuario logueado
  * - email: Email del usuario
- * - expiresIn: Tiempo de expiración en milisegundos
+ * - expiresIn: Tiempo de expiración del JWT en milisegundos
+ * - refreshExpiresIn: Tiempo de expiración del refresh token en milisegundos
  */
 @Data
 @Builder
@@ -21,10 +23,14 @@ import lombok.NoArgsConstructor;
 public class LoginResponse {
 
     private String token;
+
+    private String refreshToken;
     
     private Long userId;
     
     private String email;
     
-    private Long expiresIn;  // Milisegundos hasta expiración (3600000 = 1 hora)
+    private Long expiresIn;  // Milisegundos hasta expiración del JWT
+
+    private Long refreshExpiresIn;
 }
@@ -0,0 +1,30 @@
+package com.dmh.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento del feed de revocaciones.
+ *
+ * - revocation: digest (SHA-256 hex del token revocado) y expiresAt
+ * - epoch: userId y tokenVersion; los tokens del usuario con versión menor
+ *   quedan revocados hasta expiresAt
+ *
+ * expiresAt va en epoch millis: después de eso no hace falta recordar el evento.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationEvent {
+
+    private String digest;
+
+    private Long expiresAt;
+
+    private Long userId;
+
+    private Long tokenVersion;
+}
@@ -0,0 +1,27 @@
+package com.dmh.userservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO para validar varios tokens en una sola llamada.
+ *
+ * Se envían los digests SHA-256 (hex) de los tokens, nunca los tokens en claro.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenValidationBatchRequest {
+
+    public static final int MAX_DIGESTS = 500;
+
+    @NotEmpty(message = "At least one digest is required")
+    @Size(max = MAX_DIGESTS, message = "At most " + MAX_DIGESTS + " digests per request")
+    private List<@Pattern(regexp = "[0-9a-f]{64}", message = "Digests must be SHA-256 hex") String> digests;
+}
@@ -0,0 +1,23 @@
+package com.dmh.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Response DTO de la validación en lote: digest -> revocado.
+ *
+ * Solo refleja revocaciones por token (logout). El logout en todos lados se
+ * evalúa con los claims del token y el gateway lo recibe por el feed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenValidationBatchResponse {
+
+    private Map<String, Boolean> revoked;
+}
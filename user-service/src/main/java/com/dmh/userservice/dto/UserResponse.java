@@ -1,5 +1,6 @@
 package com.dmh.userservice.dto;
 
+import com.dmh.userservice.entity.ProvisioningStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,4 +20,5 @@ public class UserResponse {
     private String phone;
     private String cvu;
     private String alias;
+    private ProvisioningStatus accountStatus;
 }
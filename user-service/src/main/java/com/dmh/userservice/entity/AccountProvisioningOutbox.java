@@ -0,0 +1,83 @@
+package com.dmh.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Outbox de alta de cuentas.
+ *
+ * El registro guarda el usuario y esta fila en la misma transacción; el
+ * AccountProvisioningDispatcher crea la cuenta en account-service después,
+ * con reintentos. Al terminar quedan acá el CVU y el alias asignados.
+ *
+ * Las fechas se guardan en UTC, igual que las compara el dispatcher: con la
+ * hora local, instancias en zonas distintas verían vencidas filas ajenas.
+ */
+@Entity
+@Table(name = "account_provisioning_outbox", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountProvisioningOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, unique = true)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ProvisioningStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * Próximo intento (backoff) o fin del lease del dispatcher que la tomó.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "cvu", length = 22)
+    private String cvu;
+
+    @Column(name = "alias", length = 100)
+    private String alias;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public static AccountProvisioningOutbox pendingFor(Long userId) {
+        AccountProvisioningOutbox entry = new AccountProvisioningOutbox();
+        entry.setUserId(userId);
+        entry.setStatus(ProvisioningStatus.PENDING);
+        entry.setNextAttemptAt(LocalDateTime.now(ZoneOffset.UTC));
+        return entry;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now(ZoneOffset.UTC);
+        updatedAt = LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,42 @@
+package com.dmh.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aviso de que el perfil cacheado de un usuario quedó viejo.
+ *
+ * Cada instancia de user-service lee las filas nuevas y descarta el perfil
+ * de su UserProfileCache; así la invalidación llega a todas, no solo a la
+ * que recibió el cambio. Las filas se borran pasado retention.
+ */
+@Entity
+@Table(name = "profile_invalidations", indexes = {
+    @Index(name = "idx_profile_invalidation_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfileInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public static ProfileInvalidation of(Long userId, LocalDateTime createdAt) {
+        ProfileInvalidation invalidation = new ProfileInvalidation();
+        invalidation.setUserId(userId);
+        invalidation.setCreatedAt(createdAt);
+        return invalidation;
+    }
+}
@@ -0,0 +1,10 @@
+package com.dmh.userservice.entity;
+
+/**
+ * Estado del alta de la cuenta en account-service para un usuario registrado.
+ */
+public enum ProvisioningStatus {
+    PENDING,
+    PROVISIONED,
+    FAILED
+}
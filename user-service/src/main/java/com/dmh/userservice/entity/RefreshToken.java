@@ -0,0 +1,65 @@
+package com.dmh.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token rotativo.
+ *
+ * Solo se guarda el SHA-256 del token (es un valor aleatorio de 256 bits, no
+ * hace falta un hash lento). Cada uso lo consume y emite uno nuevo de la misma
+ * familia; presentar uno ya consumido revoca la familia entera (robo probable).
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+    @Index(name = "idx_refresh_token_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Identifica la cadena de rotaciones que empezó en un login.
+     */
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    /**
+     * User.tokenVersion al emitirlo: un logout en todos lados también invalida los refresh tokens.
+     */
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Momento en que se consumió (rotación) o se revocó. Null mientras está vigente.
+     */
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
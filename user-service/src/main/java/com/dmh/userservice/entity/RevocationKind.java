@@ -0,0 +1,12 @@
+package com.dmh.userservice.entity;
+
+/**
+ * Tipo de fila en token_blacklist.
+ *
+ * - TOKEN: un token puntual (logout), identificado por su digest.
+ * - EPOCH: todos los tokens del usuario con versión menor a tokenVersion (logout en todos lados).
+ */
+public enum RevocationKind {
+    TOKEN,
+    EPOCH
+}
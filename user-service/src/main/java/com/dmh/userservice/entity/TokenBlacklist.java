@@ -4,20 +4,23 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 /**
  * Entidad para almacenar tokens invalidados (blacklist).
  * 
- * Cuando un usuario hace logout, su token se agrega a esta tabla.
- * El API Gateway verifica esta tabla antes de permitir acceso.
+ * Cuando un usuario hace logout, el digest de su token se agrega a esta tabla
+ * (write-behind desde TokenBlacklistStore, que responde las validaciones en memoria).
+ * Un logout en todos lados agrega una fila EPOCH con la nueva versión de tokens
+ * del usuario, vigente mientras pueda quedar algún token anterior sin expirar.
  * 
- * Los tokens se eliminan automáticamente cuando expiran (1 hora).
+ * TokenBlacklistStore purga por lotes las filas de tokens ya expirados.
  */
 @Entity
 @Table(name = "token_blacklist", indexes = {
-    @Index(name = "idx_token", columnList = "token"),
+    @Index(name = "idx_token_digest", columnList = "token_digest"),
     @Index(name = "idx_expires_at", columnList = "expires_at")
 })
 @Data
@@ -29,12 +32,23 @@ public class TokenBlacklist {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'TOKEN'")
+    @Column(name = "kind", nullable = false, length = 10)
+    private RevocationKind kind = RevocationKind.TOKEN;
+
+    /**
+     * SHA-256 (hex) del token invalidado (TokenDigest). No se guarda el JWT completo.
+     * Null en filas EPOCH.
+     */
+    @Column(name = "token_digest", unique = true, length = 64)
+    private String tokenDigest;
+
     /**
-     * Token JWT completo que fue invalidado.
-     * Indexed para búsqueda rápida.
+     * Filas EPOCH: los tokens del usuario con versión menor a esta quedan invalidados.
      */
-    @Column(nullable = false, unique = true, length = 500)
-    private String token;
+    @Column(name = "token_version")
+    private Long tokenVersion;
 
     /**
      * ID del usuario que hizo logout.
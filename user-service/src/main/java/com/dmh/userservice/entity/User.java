@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -36,6 +37,14 @@ public class User {
     @Column(name = "password", nullable = false, length = 255)
     private String password;
 
+    /**
+     * Época de tokens: "logout en todos lados" la incrementa y los tokens con
+     * un claim "ver" menor dejan de ser válidos.
+     */
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,12 @@
+package com.dmh.userservice.exception;
+
+/**
+ * El servicio no puede atender la operación ahora (p. ej. el pool de hashing
+ * de contraseñas está lleno). Se responde 503 con Retry-After.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+package com.dmh.userservice.repository;
+
+import com.dmh.userservice.entity.AccountProvisioningOutbox;
+import com.dmh.userservice.entity.ProvisioningStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountProvisioningOutboxRepository extends JpaRepository<AccountProvisioningOutbox, Long> {
+
+    Optional<AccountProvisioningOutbox> findByUserId(Long userId);
+
+    /**
+     * Filas pendientes y vencidas, bloqueadas para esta transacción.
+     * SKIP LOCKED: varias instancias toman lotes distintos sin esperarse.
+     */
+    @Query(value = "SELECT * FROM account_provisioning_outbox "
+            + "WHERE status = 'PENDING' AND next_attempt_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<AccountProvisioningOutbox> lockDueBatch(LocalDateTime now, int limit);
+
+    long countByStatus(ProvisioningStatus status);
+
+    /**
+     * Vuelve a PENDING las filas FAILED con los intentos en cero, para que el
+     * dispatcher las retome.
+     */
+    @Modifying
+    @Query("UPDATE AccountProvisioningOutbox o SET o.status = com.dmh.userservice.entity.ProvisioningStatus.PENDING, "
+            + "o.attempts = 0, o.nextAttemptAt = :now, o.updatedAt = :now "
+            + "WHERE o.status = com.dmh.userservice.entity.ProvisioningStatus.FAILED")
+    int requeueFailed(LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE AccountProvisioningOutbox o SET o.status = com.dmh.userservice.entity.ProvisioningStatus.PENDING, "
+            + "o.attempts = 0, o.nextAttemptAt = :now, o.updatedAt = :now "
+            + "WHERE o.status = com.dmh.userservice.entity.ProvisioningStatus.FAILED AND o.userId = :userId")
+    int requeueFailedForUser(Long userId, LocalDateTime now);
+}
@@ -0,0 +1,27 @@
+package com.dmh.userservice.repository;
+
+import com.dmh.userservice.entity.ProfileInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProfileInvalidationRepository extends JpaRepository<ProfileInvalidation, Long> {
+
+    /**
+     * userIds invalidados desde :since (sin repetir).
+     */
+    @Query("SELECT DISTINCT p.userId FROM ProfileInvalidation p WHERE p.createdAt >= :since")
+    List<Long> findUserIdsInvalidatedSince(LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM profile_invalidations WHERE id IN ("
+            + "SELECT id FROM profile_invalidations WHERE created_at < :cutoff ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int deleteOlderThanChunk(LocalDateTime cutoff, int limit);
+}
@@ -8,17 +8,27 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TokenBlacklistRepository extends JpaRepository<TokenBlacklist, Long> {
 
-    boolean existsByToken(String token);
+    Optional<TokenBlacklist> findTopByOrderByIdDesc();
 
-    Optional<TokenBlacklist> findByToken(String token);
+    boolean existsByTokenDigest(String tokenDigest);
 
+    List<TokenBlacklist> findByExpiresAtAfterOrderByIdAsc(LocalDateTime now);
+
+    List<TokenBlacklist> findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(Long id, LocalDateTime now);
+
+    /**
+     * Borra hasta :limit filas expiradas. Se llama en bucle para no tener
+     * una transacción larga ni bloquear la tabla con un DELETE masivo.
+     */
     @Modifying
     @Transactional
-    @Query("DELETE FROM TokenBlacklist t WHERE t.expiresAt < :now")
-    int deleteExpiredTokens(LocalDateTime now);
+    @Query(value = "DELETE FROM token_blacklist WHERE id IN ("
+            + "SELECT id FROM token_blacklist WHERE expires_at < :now ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredChunk(LocalDateTime now, int limit);
 }
@@ -0,0 +1,196 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.client.AccountServiceClient;
+import com.dmh.userservice.dto.AccountResponseDTO;
+import com.dmh.userservice.dto.CreateAccountRequestDTO;
+import com.dmh.userservice.entity.AccountProvisioningOutbox;
+import com.dmh.userservice.entity.ProvisioningStatus;
+import com.dmh.userservice.repository.AccountProvisioningOutboxRepository;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Procesa el outbox de alta de cuentas.
+ *
+ * Cada ciclo toma un lote de filas vencidas con SELECT ... FOR UPDATE SKIP LOCKED
+ * y les pone un lease (next_attempt_at = ahora + lease) en una transacción corta.
+ * Las llamadas a account-service se hacen fuera de la transacción, sin retener
+ * una conexión de Hikari durante el round trip, y cada resultado se guarda aparte.
+ *
+ * - Si la cuenta ya existe (409, p. ej. un intento anterior que no llegó a
+ *   guardarse), se toma la existente: el alta es idempotente.
+ * - Si falla, se reintenta con backoff exponencial hasta max-attempts; después
+ *   queda en FAILED hasta que se reencola (requeueFailed, expuesto en
+ *   InternalUserController).
+ * - Si el lote tarda más que el lease se corta: las filas restantes vuelven a
+ *   estar disponibles para cualquier instancia.
+ *
+ * Las fechas se comparan en UTC (ver AccountProvisioningOutbox).
+ *
+ * Métricas: user.account-provisioning por result (provisioned/retry/failed) y
+ * user.account-provisioning.failed (filas en FAILED).
+ */
+@Service
+public class AccountProvisioningDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountProvisioningDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final AccountProvisioningOutboxRepository outboxRepository;
+    private final AccountServiceClient accountServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+
+    public AccountProvisioningDispatcher(AccountProvisioningOutboxRepository outboxRepository,
+                                         AccountServiceClient accountServiceClient,
+                                         TransactionTemplate transactionTemplate,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${account-provisioning.batch-size:20}") int batchSize,
+                                         @Value("${account-provisioning.lease:1m}") Duration lease,
+                                         @Value("${account-provisioning.base-backoff:1s}") Duration baseBackoff,
+                                         @Value("${account-provisioning.max-backoff:5m}") Duration maxBackoff,
+                                         @Value("${account-provisioning.max-attempts:20}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.accountServiceClient = accountServiceClient;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxAttempts = maxAttempts;
+        Gauge.builder("user.account-provisioning.failed", outboxRepository,
+                        repository -> repository.countByStatus(ProvisioningStatus.FAILED))
+                .description("Altas de cuenta que agotaron los reintentos")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${account-provisioning.poll-interval:1000}")
+    public void dispatch() {
+        List<AccountProvisioningOutbox> batch;
+        do {
+            batch = claimBatch();
+            if (!processBatch(batch)) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private List<AccountProvisioningOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            List<AccountProvisioningOutbox> due = outboxRepository.lockDueBatch(now, batchSize);
+            due.forEach(entry -> entry.setNextAttemptAt(now.plus(lease)));
+            return outboxRepository.saveAll(due);
+        });
+    }
+
+    /**
+     * @return false si se agotó el lease antes de terminar el lote
+     */
+    private boolean processBatch(List<AccountProvisioningOutbox> batch) {
+        long deadline = System.nanoTime() + lease.toNanos();
+        for (AccountProvisioningOutbox entry : batch) {
+            if (System.nanoTime() - deadline > 0) {
+                logger.warn("⏳ Account provisioning lease expired, leaving remaining entries for the next run");
+                return false;
+            }
+            provision(entry);
+        }
+        return true;
+    }
+
+    void provision(AccountProvisioningOutbox entry) {
+        Long userId = entry.getUserId();
+        try {
+            AccountResponseDTO account = createOrFetch(userId);
+            entry.setStatus(ProvisioningStatus.PROVISIONED);
+            entry.setCvu(account.getCvu());
+            entry.setAlias(account.getAlias());
+            entry.setLastError(null);
+            record("provisioned");
+            logger.info("Account provisioned for userId: {}, CVU: {}, Alias: {}",
+                    userId, account.getCvu(), account.getAlias());
+        } catch (RuntimeException e) {
+            int attempts = entry.getAttempts() + 1;
+            entry.setAttempts(attempts);
+            entry.setLastError(truncate(e.getMessage()));
+            if (attempts >= maxAttempts) {
+                entry.setStatus(ProvisioningStatus.FAILED);
+                record("failed");
+                logger.error("❌ Account provisioning failed for userId {} after {} attempts: {}",
+                        userId, attempts, e.getMessage());
+            } else {
+                entry.setNextAttemptAt(LocalDateTime.now(ZoneOffset.UTC).plus(backoff(attempts)));
+                record("retry");
+                logger.warn("⚠️ Account provisioning attempt {} failed for userId {}: {}",
+                        attempts, userId, e.getMessage());
+            }
+        }
+        outboxRepository.save(entry);
+    }
+
+    /**
+     * Reencola las altas en FAILED para que el próximo ciclo las reintente.
+     *
+     * @param userId solo la del usuario, o null para todas
+     * @return filas reencoladas
+     */
+    public int requeueFailed(Long userId) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        Integer requeued = transactionTemplate.execute(status -> userId != null
+                ? outboxRepository.requeueFailedForUser(userId, now)
+                : outboxRepository.requeueFailed(now));
+        int count = requeued != null ? requeued : 0;
+        logger.info("🔁 Requeued {} failed account provisioning entries{}", count,
+                userId != null ? " for userId " + userId : "");
+        return count;
+    }
+
+    private AccountResponseDTO createOrFetch(Long userId) {
+        try {
+            return accountServiceClient.createAccount(new CreateAccountRequestDTO(userId), userId).getBody();
+        } catch (FeignException.Conflict e) {
+            return accountServiceClient.getAccountByUserId(userId, userId).getBody();
+        }
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void record(String result) {
+        Counter.builder("user.account-provisioning")
+                .description("Intentos de alta de cuenta desde el outbox")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
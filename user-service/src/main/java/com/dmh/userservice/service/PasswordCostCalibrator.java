@@ -0,0 +1,116 @@
+package com.dmh.userservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Calibra el costo de BCrypt al arrancar según el hardware del nodo.
+ *
+ * Mide un hash con min-strength y sube el costo mientras el tiempo estimado
+ * (se duplica con cada punto de costo) no supere target-latency, sin salir
+ * de [min-strength, max-strength].
+ *
+ * El costo es por nodo: con hardware distinto, cada nodo calibra el suyo.
+ * Solo los hashes con un costo menor al de este nodo se re-hashean en el
+ * próximo login exitoso (ver needsRehash); uno con costo mayor se deja como
+ * está, para que dos nodos con costos distintos no re-hasheen la misma
+ * contraseña en cada login. Para un costo único, fijar min-strength = max-strength.
+ *
+ * Métrica: user.password.hashing.strength.
+ */
+@Component
+public class PasswordCostCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordCostCalibrator.class);
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}$");
+    private static final int SAMPLES = 3;
+    private static final String PROBE_PASSWORD = "calibration-probe";
+
+    private final int strength;
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordCostCalibrator(@Value("${password.hashing.target-latency:250ms}") Duration targetLatency,
+                                  @Value("${password.hashing.min-strength:10}") int minStrength,
+                                  @Value("${password.hashing.max-strength:14}") int maxStrength,
+                                  MeterRegistry meterRegistry) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("Invalid BCrypt strength bounds: " + minStrength + ".." + maxStrength);
+        }
+
+        if (minStrength == maxStrength) {
+            this.strength = minStrength;
+        } else {
+            long nanosAtMin = measure(minStrength);
+            this.strength = strengthFor(nanosAtMin, minStrength, maxStrength, targetLatency);
+            logger.info("🔐 BCrypt calibrated: strength {} ({} ms at strength {}, target {} ms)",
+                    strength, Duration.ofNanos(nanosAtMin).toMillis(), minStrength, targetLatency.toMillis());
+        }
+        this.encoder = new BCryptPasswordEncoder(strength);
+
+        Gauge.builder("user.password.hashing.strength", () -> strength)
+                .description("Costo de BCrypt calibrado en este nodo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mayor costo cuyo tiempo estimado no supera el objetivo (cada punto duplica el trabajo).
+     */
+    static int strengthFor(long nanosAtMin, int minStrength, int maxStrength, Duration targetLatency) {
+        long target = targetLatency.toNanos();
+        int chosen = minStrength;
+        double estimate = nanosAtMin;
+        while (chosen < maxStrength && estimate * 2 <= target) {
+            estimate *= 2;
+            chosen++;
+        }
+        return chosen;
+    }
+
+    /**
+     * Mediana de varios hashes con el costo dado (el primero, de calentamiento, se descarta).
+     */
+    private static long measure(int strength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(strength);
+        probe.encode(PROBE_PASSWORD);
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode(PROBE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    public BCryptPasswordEncoder getEncoder() {
+        return encoder;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * true si el hash es BCrypt con un costo menor al calibrado.
+     * Un hash con costo mayor o que no es BCrypt no se toca.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_HASH.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
@@ -0,0 +1,124 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dedicado para BCrypt (hash en register, verificación en login).
+ *
+ * - Tantos hilos como CPUs: BCrypt es CPU puro, más hilos solo agregan
+ *   cambios de contexto.
+ * - Cola acotada: si está llena, ServiceBusyException (503) en el acto.
+ * - Espera máxima max-wait por resultado.
+ *
+ * El hilo de Tomcat espera el resultado, pero como mucho threads + queue-capacity
+ * hilos quedan ocupados así; el resto del pool de Tomcat sigue libre para
+ * endpoints baratos como /token/validate.
+ *
+ * Métricas: user.password.hashing (timer por operation), user.password.hashing.queue
+ * (tareas en cola), user.password.hashing.active y user.password.hashing.rejected.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(@Value("${password.hashing.threads:0}") int threads,
+                                   @Value("${password.hashing.queue-capacity:0}") int queueCapacity,
+                                   @Value("${password.hashing.max-wait:2s}") Duration maxWait,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int capacity = queueCapacity > 0 ? queueCapacity : poolSize * 4;
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWait = maxWait;
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("user.password.hashing.rejected")
+                .description("Operaciones de contraseña rechazadas con el pool lleno")
+                .register(meterRegistry);
+        Gauge.builder("user.password.hashing.queue", executor, pool -> pool.getQueue().size())
+                .description("Operaciones de contraseña esperando un hilo")
+                .register(meterRegistry);
+        Gauge.builder("user.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de contraseña en curso")
+                .register(meterRegistry);
+
+        logger.info("🔐 Password hashing pool: {} threads, queue {}", poolSize, capacity);
+    }
+
+    /**
+     * Ejecuta la operación en el pool y espera el resultado.
+     *
+     * @param operation nombre para las métricas (encode, matches)
+     * @throws ServiceBusyException si la cola está llena o el resultado no llega en max-wait
+     */
+    public <T> T call(String operation, Supplier<T> task) {
+        Timer timer = Timer.builder("user.password.hashing")
+                .description("Duración de hash/verificación de contraseñas, sin la espera en cola")
+                .tag("operation", operation)
+                .register(meterRegistry);
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("🔐 Password hashing pool full, rejecting {}", operation);
+            throw new ServiceBusyException("Server busy, try again later");
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceBusyException("Server busy, try again later");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,193 @@
+package com.dmh.userservice.service;
+
+import com.dmh.jwt.TokenDigest;
+import com.dmh.userservice.entity.RefreshToken;
+import com.dmh.userservice.entity.User;
+import com.dmh.userservice.exception.InvalidCredentialsException;
+import com.dmh.userservice.repository.RefreshTokenRepository;
+import com.dmh.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Emisión y rotación de refresh tokens.
+ *
+ * Renovar la sesión cuesta un lookup por hash y una firma HMAC, en lugar del
+ * BCrypt de un login completo.
+ *
+ * - Cada refresh consume el token y emite uno nuevo de la misma familia.
+ * - Presentar un token ya consumido revoca toda la familia (reuso: probable
+ *   robo), salvo dentro de reuse-grace tras el consumo, para tolerar
+ *   reintentos y refresh concurrentes del mismo cliente.
+ * - Un logout en todos lados (User.tokenVersion) invalida también los refresh tokens.
+ * - El access token lleva la familia en el claim "sid": el logout de esa
+ *   sesión revoca la familia entera (revokeFamily).
+ *
+ * Métrica: user.refresh-tokens por result (rotated/reused/expired/invalid/superseded/logout).
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Duration reuseGrace;
+    private final int sweepChunk;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${token.refresh.ttl:14d}") Duration ttl,
+                               @Value("${token.refresh.reuse-grace:10s}") Duration reuseGrace,
+                               @Value("${token.refresh.sweep-chunk:1000}") int sweepChunk) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.reuseGrace = reuseGrace;
+        this.sweepChunk = sweepChunk;
+    }
+
+    /**
+     * Emite el refresh token inicial de una sesión (login).
+     */
+    public IssuedToken issue(User user) {
+        return issue(user.getId(), user.getTokenVersion(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Revoca todos los refresh tokens vigentes de la sesión (logout).
+     *
+     * @return cantidad de tokens revocados
+     */
+    public int revokeFamily(String familyId) {
+        int revoked = refreshTokenRepository.revokeFamily(familyId, nowUtc());
+        record("logout");
+        return revoked;
+    }
+
+    /**
+     * Consume el refresh token y emite el siguiente de la familia.
+     *
+     * @throws InvalidCredentialsException si el token no existe, expiró, ya se usó
+     *         o fue invalidado por un logout en todos lados
+     */
+    public Rotation rotate(String rawToken) {
+        LocalDateTime now = nowUtc();
+        RefreshToken current = refreshTokenRepository.findByTokenHash(TokenDigest.sha256(rawToken))
+                .orElseThrow(() -> reject("invalid", "Invalid refresh token"));
+
+        if (current.getRevokedAt() != null) {
+            throw reused(current, now);
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw reject("expired", "Refresh token expired");
+        }
+
+        User user = userRepository.findById(current.getUserId())
+                .orElseThrow(() -> reject("invalid", "Invalid refresh token"));
+        if (current.getTokenVersion() < user.getTokenVersion()) {
+            throw reject("superseded", "Refresh token has been revoked");
+        }
+
+        if (refreshTokenRepository.consume(current.getId(), now) == 0) {
+            // Otro refresh con el mismo token ganó la carrera
+            throw reject("reused", "Refresh token already used");
+        }
+
+        IssuedToken next = issue(user.getId(), user.getTokenVersion(), current.getFamilyId());
+        record("rotated");
+        return new Rotation(user, next);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    @Scheduled(fixedDelayString = "${token.refresh.sweep-interval:300000}")
+    public void sweepExpired() {
+        LocalDateTime cutoff = nowUtc();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredChunk(cutoff, sweepChunk);
+            total += deleted;
+        } while (deleted == sweepChunk);
+
+        if (total > 0) {
+            logger.info("🧹 Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private IssuedToken issue(Long userId, long tokenVersion, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(TokenDigest.sha256(rawToken));
+        refreshToken.setUserId(userId);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setTokenVersion(tokenVersion);
+        refreshToken.setExpiresAt(nowUtc().plus(ttl));
+        refreshTokenRepository.save(refreshToken);
+        return new IssuedToken(rawToken, familyId);
+    }
+
+    private InvalidCredentialsException reused(RefreshToken token, LocalDateTime now) {
+        if (token.getRevokedAt().plus(reuseGrace).isAfter(now)) {
+            return reject("reused", "Refresh token already used");
+        }
+        int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+        logger.warn("⚠️ Refresh token reuse detected for user {}: revoked {} tokens of family {}",
+                token.getUserId(), revoked, token.getFamilyId());
+        return reject("reused", "Refresh token already used");
+    }
+
+    private InvalidCredentialsException reject(String result, String message) {
+        record(result);
+        return new InvalidCredentialsException(message);
+    }
+
+    private void record(String result) {
+        Counter.builder("user.refresh-tokens")
+                .description("Intentos de refresh por resultado")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static LocalDateTime nowUtc() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * Refresh token recién emitido: el valor en claro (solo para la respuesta) y su familia (sesión).
+     */
+    public record IssuedToken(String value, String familyId) {
+    }
+
+    /**
+     * Resultado de una rotación: el usuario dueño y el nuevo refresh token.
+     */
+    public record Rotation(User user, IssuedToken refreshToken) {
+    }
+}
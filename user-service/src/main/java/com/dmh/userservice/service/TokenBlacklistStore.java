@@ -0,0 +1,275 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.entity.RevocationKind;
+import com.dmh.userservice.entity.TokenBlacklist;
+import com.dmh.userservice.repository.TokenBlacklistRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Blacklist de tokens en memoria: digest SHA-256 -> expiración (epoch millis),
+ * más la época de tokens de los usuarios que hicieron logout en todos lados
+ * (userId -> versión mínima válida), mientras pueda quedar algún token viejo vivo.
+ *
+ * - /token/validate y logout consultan solo los mapas, sin ir a la base.
+ * - Las revocaciones nuevas se guardan en token_blacklist en segundo plano
+ *   (write-behind, cada flush-interval) y recién ahí se publican en el feed.
+ * - Las revocaciones de otras instancias se leen de token_blacklist cada
+ *   sync-interval (cursor por id, igual que el feed, releyendo las últimas
+ *   rescan-window filas: los ids de transacciones concurrentes pueden
+ *   confirmarse fuera de orden; recordar una fila repetida no tiene efecto).
+ * - Cada sweep-interval se descartan las entradas expiradas del mapa y se
+ *   borran de la tabla en lotes de sweep-chunk filas.
+ *
+ * Una revocación hecha en otra instancia se ve acá con un retraso de hasta
+ * flush-interval + sync-interval; el gateway la recibe antes por el feed.
+ *
+ * Métricas: user.token-blacklist.size, user.token-blacklist.epochs,
+ * user.token-blacklist.pending, user.token-blacklist.purged,
+ * user.token-blacklist.persist-errors y user.token-blacklist.batch.size
+ * (digests por validación en lote; la latencia la mide UserController).
+ */
+@Service
+public class TokenBlacklistStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistStore.class);
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final TokenRevocationFeed tokenRevocationFeed;
+    private final int sweepChunk;
+    private final long tokenLifetimeMillis;
+    private final long rescanWindow;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Map<Long, Epoch> epochs = new ConcurrentHashMap<>();
+    private final Queue<TokenBlacklist> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong highWaterMark = new AtomicLong();
+    private final Counter purged;
+    private final Counter persistErrors;
+    private final DistributionSummary batchSize;
+
+    public TokenBlacklistStore(TokenBlacklistRepository tokenBlacklistRepository,
+                               TokenRevocationFeed tokenRevocationFeed,
+                               MeterRegistry meterRegistry,
+                               @Value("${token.blacklist.sweep-chunk:1000}") int sweepChunk,
+                               @Value("${jwt.expiration}") long tokenLifetimeMillis,
+                               @Value("${token.blacklist.rescan-window:500}") long rescanWindow) {
+        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.tokenRevocationFeed = tokenRevocationFeed;
+        this.sweepChunk = sweepChunk;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.rescanWindow = rescanWindow;
+        this.purged = Counter.builder("user.token-blacklist.purged")
+                .description("Filas expiradas borradas de token_blacklist")
+                .register(meterRegistry);
+        this.persistErrors = Counter.builder("user.token-blacklist.persist-errors")
+                .description("Revocaciones que no se pudieron guardar (se reintentan)")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("user.token-blacklist.batch.size")
+                .description("Digests por validación en lote")
+                .register(meterRegistry);
+        Gauge.builder("user.token-blacklist.size", revoked, Map::size)
+                .description("Tokens revocados vigentes en memoria")
+                .register(meterRegistry);
+        Gauge.builder("user.token-blacklist.epochs", epochs, Map::size)
+                .description("Usuarios con logout en todos lados vigente")
+                .register(meterRegistry);
+        Gauge.builder("user.token-blacklist.pending", pending, Queue::size)
+                .description("Revocaciones pendientes de guardar")
+                .register(meterRegistry);
+
+        List<TokenBlacklist> active = tokenBlacklistRepository.findByExpiresAtAfterOrderByIdAsc(nowUtc());
+        active.forEach(this::remember);
+        logger.info("Token blacklist loaded: {} active revocations, {} user epochs", revoked.size(), epochs.size());
+    }
+
+    public boolean isRevoked(String digest) {
+        return revoked.containsKey(digest);
+    }
+
+    /**
+     * Estado de revocación de varios digests con una sola pasada por el mapa.
+     *
+     * @return digest -> revocado, en el orden recibido (sin duplicados)
+     */
+    public Map<String, Boolean> revocationStatus(Collection<String> digests) {
+        batchSize.record(digests.size());
+        Map<String, Boolean> status = new LinkedHashMap<>(digests.size() * 2);
+        for (String digest : digests) {
+            status.put(digest, revoked.containsKey(digest));
+        }
+        return status;
+    }
+
+    /**
+     * true si el usuario hizo logout en todos lados después de emitirse un token con esta versión.
+     */
+    public boolean isSuperseded(Long userId, long tokenVersion) {
+        Epoch epoch = epochs.get(userId);
+        return epoch != null && tokenVersion < epoch.version();
+    }
+
+    /**
+     * Revoca el token en memoria y lo encola para guardarlo.
+     *
+     * @return false si ya estaba revocado
+     */
+    public boolean revoke(String digest, Long userId, Instant expiresAt) {
+        if (revoked.putIfAbsent(digest, expiresAt.toEpochMilli()) != null) {
+            return false;
+        }
+
+        TokenBlacklist entry = new TokenBlacklist();
+        entry.setTokenDigest(digest);
+        entry.setUserId(userId);
+        entry.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+        pending.add(entry);
+        return true;
+    }
+
+    /**
+     * Invalida todos los tokens del usuario con versión menor a tokenVersion.
+     * Se recuerda hasta que expire el último token que pudo emitirse antes.
+     */
+    public void revokeAllBefore(Long userId, long tokenVersion) {
+        Instant expiresAt = Instant.now().plusMillis(tokenLifetimeMillis);
+        mergeEpoch(userId, new Epoch(tokenVersion, expiresAt.toEpochMilli()));
+
+        TokenBlacklist entry = new TokenBlacklist();
+        entry.setKind(RevocationKind.EPOCH);
+        entry.setUserId(userId);
+        entry.setTokenVersion(tokenVersion);
+        entry.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+        pending.add(entry);
+    }
+
+    /**
+     * Guarda las revocaciones pendientes y las publica en el feed.
+     * Si la base falla, se reintentan en el próximo ciclo.
+     */
+    @Scheduled(fixedDelayString = "${token.blacklist.flush-interval:200}")
+    public void flush() {
+        List<TokenBlacklist> failed = new ArrayList<>();
+        TokenBlacklist entry;
+        while ((entry = pending.poll()) != null) {
+            try {
+                TokenBlacklist saved = tokenBlacklistRepository.save(entry);
+                tokenRevocationFeed.publish(saved);
+            } catch (DataIntegrityViolationException e) {
+                if (isAlreadyPersisted(entry)) {
+                    // Otra instancia ya guardó el mismo token (y lo publica ella)
+                    logger.debug("Revocation {} already persisted", entry.getTokenDigest());
+                    continue;
+                }
+                persistErrors.increment();
+                logger.error("❌ Token revocation rejected by the database, retrying later: {}",
+                        e.getMostSpecificCause().getMessage());
+                failed.add(entry);
+                break;
+            } catch (RuntimeException e) {
+                persistErrors.increment();
+                logger.warn("⚠️ Could not persist token revocation, retrying later: {}", e.getMessage());
+                failed.add(entry);
+                break;
+            }
+        }
+        pending.addAll(failed);
+    }
+
+    /**
+     * Solo una revocación por token con el mismo digest ya guardado es un duplicado;
+     * cualquier otra violación (esquema viejo, columnas NOT NULL) es un error a reintentar.
+     */
+    private boolean isAlreadyPersisted(TokenBlacklist entry) {
+        if (entry.getKind() != RevocationKind.TOKEN) {
+            return false;
+        }
+        try {
+            return tokenBlacklistRepository.existsByTokenDigest(entry.getTokenDigest());
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Incorpora las revocaciones guardadas por otras instancias de user-service.
+     */
+    @Scheduled(fixedDelayString = "${token.blacklist.sync-interval:1000}")
+    public void syncFromDatabase() {
+        long from = Math.max(0L, highWaterMark.get() - rescanWindow);
+        tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(from, nowUtc())
+                .forEach(this::remember);
+    }
+
+    /**
+     * Descarta revocaciones de tokens ya expirados, en memoria y en la tabla.
+     */
+    @Scheduled(fixedDelayString = "${token.blacklist.sweep-interval:60000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        epochs.values().removeIf(epoch -> epoch.expiresAt() <= now);
+
+        LocalDateTime cutoff = nowUtc();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = tokenBlacklistRepository.deleteExpiredChunk(cutoff, sweepChunk);
+            total += deleted;
+        } while (deleted == sweepChunk);
+
+        if (total > 0) {
+            purged.increment(total);
+            logger.info("🧹 Purged {} expired token revocations", total);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void remember(TokenBlacklist entry) {
+        long expiresAt = entry.getExpiresAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (entry.getKind() == RevocationKind.EPOCH) {
+            mergeEpoch(entry.getUserId(), new Epoch(entry.getTokenVersion(), expiresAt));
+        } else {
+            revoked.putIfAbsent(entry.getTokenDigest(), expiresAt);
+        }
+        highWaterMark.accumulateAndGet(entry.getId(), Math::max);
+    }
+
+    private void mergeEpoch(Long userId, Epoch epoch) {
+        epochs.merge(userId, epoch, (current, candidate) -> new Epoch(
+                Math.max(current.version(), candidate.version()),
+                Math.max(current.expiresAt(), candidate.expiresAt())));
+    }
+
+    private static LocalDateTime nowUtc() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    private record Epoch(long version, long expiresAt) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.dto.TokenRevocationEvent;
+import com.dmh.userservice.entity.RevocationKind;
+import com.dmh.userservice.entity.TokenBlacklist;
+import com.dmh.userservice.repository.TokenBlacklistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed SSE de revocaciones de tokens (logout) para el API Gateway.
+ *
+ * Protocolo:
+ * - Al conectarse, el suscriptor recibe un snapshot de las revocaciones vigentes
+ *   (o solo las posteriores al cursor Last-Event-ID si lo envía), seguido de un
+ *   evento "synced" con el cursor actual.
+ * - Después recibe cada revocación nueva como evento "revocation" (un token) o
+ *   "epoch" (todos los tokens del usuario anteriores a una versión), cuyo id es
+ *   el id de la fila en token_blacklist (cursor reanudable).
+ *
+ * Las revocaciones se publican al commitear el logout en esta instancia, y un
+ * poller sobre token_blacklist propaga las hechas por otras instancias de
+ * user-service. Los eventos son idempotentes: recibir uno repetido no tiene efecto.
+ *
+ * Los ids IDENTITY de transacciones concurrentes pueden confirmarse fuera de
+ * orden: una fila con id menor puede aparecer después de haber visto una mayor.
+ * Por eso el poller (y la reanudación por cursor) vuelve a leer las últimas
+ * rescan-window filas antes del cursor; las ya enviadas se descartan por id.
+ */
+@Service
+public class TokenRevocationFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationFeed.class);
+
+    private static final String EVENT_REVOCATION = "revocation";
+    private static final String EVENT_EPOCH = "epoch";
+    private static final String EVENT_SYNCED = "synced";
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final AtomicLong highWaterMark = new AtomicLong();
+    private final NavigableSet<Long> recentlySent = new ConcurrentSkipListSet<>();
+    private final long rescanWindow;
+    private final Duration emitterTimeout;
+    private final Duration heartbeatInterval;
+    private volatile long lastHeartbeat = System.nanoTime();
+
+    public TokenRevocationFeed(TokenBlacklistRepository tokenBlacklistRepository,
+                               @Value("${token.revocation-feed.emitter-timeout:10m}") Duration emitterTimeout,
+                               @Value("${token.revocation-feed.heartbeat-interval:15s}") Duration heartbeatInterval,
+                               @Value("${token.revocation-feed.rescan-window:500}") long rescanWindow) {
+        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.rescanWindow = rescanWindow;
+        this.emitterTimeout = emitterTimeout;
+        this.heartbeatInterval = heartbeatInterval;
+        tokenBlacklistRepository.findTopByOrderByIdDesc()
+                .ifPresent(latest -> highWaterMark.set(latest.getId()));
+    }
+
+    /**
+     * Registra un nuevo suscriptor y le envía el snapshot inicial.
+     *
+     * @param lastEventId cursor del último evento recibido, o null para un resync completo
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+
+        // Se registra antes del snapshot para no perder revocaciones concurrentes
+        emitters.add(emitter);
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        List<TokenBlacklist> snapshot = lastEventId == null
+                ? tokenBlacklistRepository.findByExpiresAtAfterOrderByIdAsc(now)
+                : tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(rescanFrom(lastEventId), now);
+
+        long cursor = lastEventId == null ? 0L : lastEventId;
+        try {
+            for (TokenBlacklist entry : snapshot) {
+                emitter.send(toSseEvent(entry));
+                cursor = Math.max(cursor, entry.getId());
+            }
+            emitter.send(SseEmitter.event()
+                    .name(EVENT_SYNCED)
+                    .data(Map.of("cursor", Math.max(cursor, highWaterMark.get())), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            logger.warn("Revocation feed subscriber dropped during snapshot: {}", e.getMessage());
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        logger.info("Revocation feed subscriber connected (snapshot: {} entries, resumed from: {})",
+                snapshot.size(), lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Publica una revocación recién guardada. Si hay una transacción activa,
+     * el envío se difiere al commit para no anunciar revocaciones que luego se descartan.
+     */
+    public void publish(TokenBlacklist entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(entry);
+                }
+            });
+        } else {
+            broadcast(entry);
+        }
+    }
+
+    /**
+     * Propaga revocaciones guardadas por otras instancias de user-service.
+     */
+    @Scheduled(fixedDelayString = "${token.revocation-feed.poll-interval:1000}")
+    public void pollNewRevocations() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+
+        List<TokenBlacklist> newEntries = tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(
+                rescanFrom(highWaterMark.get()), LocalDateTime.now(ZoneOffset.UTC));
+        for (TokenBlacklist entry : newEntries) {
+            broadcast(entry);
+            highWaterMark.accumulateAndGet(entry.getId(), Math::max);
+        }
+        recentlySent.headSet(rescanFrom(highWaterMark.get()), true).clear();
+
+        if (System.nanoTime() - lastHeartbeat >= heartbeatInterval.toNanos()) {
+            lastHeartbeat = System.nanoTime();
+            for (SseEmitter emitter : emitters) {
+                send(emitter, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    /**
+     * Cursor desde el que se vuelve a leer: cubre filas con id menor que confirmaron tarde.
+     */
+    private long rescanFrom(long cursor) {
+        return Math.max(0L, cursor - rescanWindow);
+    }
+
+    private void broadcast(TokenBlacklist entry) {
+        if (!recentlySent.add(entry.getId())) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, toSseEvent(entry));
+        }
+    }
+
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Removing revocation feed subscriber: {}", e.getMessage());
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(TokenBlacklist entry) {
+        long expiresAt = entry.getExpiresAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (entry.getKind() == RevocationKind.EPOCH) {
+            TokenRevocationEvent event = TokenRevocationEvent.builder()
+                    .userId(entry.getUserId())
+                    .tokenVersion(entry.getTokenVersion())
+                    .expiresAt(expiresAt)
+                    .build();
+            return SseEmitter.event()
+                    .id(String.valueOf(entry.getId()))
+                    .name(EVENT_EPOCH)
+                    .data(event, MediaType.APPLICATION_JSON);
+        }
+
+        TokenRevocationEvent event = TokenRevocationEvent.builder()
+                .digest(entry.getTokenDigest())
+                .expiresAt(expiresAt)
+                .build();
+        return SseEmitter.event()
+                .id(String.valueOf(entry.getId()))
+                .name(EVENT_REVOCATION)
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+}
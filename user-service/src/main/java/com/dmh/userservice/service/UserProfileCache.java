@@ -0,0 +1,141 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.dto.UserResponse;
+import com.dmh.userservice.entity.ProfileInvalidation;
+import com.dmh.userservice.entity.ProvisioningStatus;
+import com.dmh.userservice.repository.ProfileInvalidationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+
+/**
+ * Cache acotado de perfiles compuestos (fila de users + CVU y alias de
+ * account-service) por userId, para no llamar a account-service en cada
+ * GET /api/users/{id}.
+ *
+ * El cache es por instancia; las invalidaciones se guardan en
+ * profile_invalidations y cada instancia las lee cada sync-interval, así
+ * llegan a todas:
+ * - updateUser invalida en la misma transacción del cambio.
+ * - account-service avisa cuando cambia el alias (POST /api/users/internal/{id}/account-changed).
+ * - Cada lectura vuelve a mirar sync-lag hacia atrás: tolera filas que
+ *   confirman tarde y relojes algo desfasados entre instancias.
+ * - ttl acota cuánto puede quedar un dato viejo si falla todo lo anterior.
+ *
+ * Un perfil puede verse viejo en otra instancia hasta sync-interval.
+ *
+ * Expone hits/misses/evictions en actuator bajo el nombre "user.profiles".
+ */
+@Component
+public class UserProfileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileCache.class);
+
+    private final Cache<Long, UserResponse> cache;
+    private final ProfileInvalidationRepository invalidationRepository;
+    private final Duration syncLag;
+    private final Duration retention;
+    private final int sweepChunk;
+    private volatile LocalDateTime lastSync;
+
+    public UserProfileCache(ProfileInvalidationRepository invalidationRepository,
+                            @Value("${user.profile-cache.max-size:10000}") long maxSize,
+                            @Value("${user.profile-cache.ttl:10m}") Duration ttl,
+                            @Value("${user.profile-cache.sync-lag:5s}") Duration syncLag,
+                            @Value("${user.profile-cache.retention:1h}") Duration retention,
+                            @Value("${user.profile-cache.sweep-chunk:1000}") int sweepChunk,
+                            MeterRegistry meterRegistry) {
+        this.invalidationRepository = invalidationRepository;
+        this.syncLag = syncLag;
+        this.retention = retention;
+        this.sweepChunk = sweepChunk;
+        this.lastSync = nowUtc();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.profiles");
+    }
+
+    /**
+     * Devuelve el perfil cacheado o lo arma con loader. Los perfiles cuya
+     * cuenta todavía no está creada no se guardan: cambian apenas se crea.
+     */
+    public UserResponse get(Long userId, Function<Long, UserResponse> loader) {
+        UserResponse cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        UserResponse profile = loader.apply(userId);
+        if (profile.getAccountStatus() == ProvisioningStatus.PROVISIONED) {
+            cache.put(userId, profile);
+        }
+        return profile;
+    }
+
+    /**
+     * Invalida el perfil en todas las instancias.
+     *
+     * Dentro de una transacción, el aviso se confirma junto con el cambio y
+     * la entrada local se descarta de nuevo al confirmar, para que una lectura
+     * concurrente no vuelva a cachear la versión anterior.
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        invalidationRepository.save(ProfileInvalidation.of(userId, nowUtc()));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Aplica las invalidaciones hechas en cualquier instancia.
+     */
+    @Scheduled(fixedDelayString = "${user.profile-cache.sync-interval:1000}")
+    public void syncInvalidations() {
+        LocalDateTime pollStartedAt = nowUtc();
+        invalidationRepository.findUserIdsInvalidatedSince(lastSync.minus(syncLag))
+                .forEach(cache::invalidate);
+        lastSync = pollStartedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${user.profile-cache.sweep-interval:300000}")
+    public void sweepInvalidations() {
+        LocalDateTime cutoff = nowUtc().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = invalidationRepository.deleteOlderThanChunk(cutoff, sweepChunk);
+            total += deleted;
+        } while (deleted == sweepChunk);
+
+        if (total > 0) {
+            logger.debug("Purged {} profile invalidations", total);
+        }
+    }
+
+    private static LocalDateTime nowUtc() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
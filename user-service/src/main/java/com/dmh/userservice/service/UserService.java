@@ -1,25 +1,31 @@
 package com.dmh.userservice.service;
 
+import com.dmh.jwt.JwtVerificationException;
+import com.dmh.jwt.TokenDigest;
+import com.dmh.jwt.VerifiedClaims;
 import com.dmh.userservice.client.AccountServiceClient;
+import com.dmh.userservice.dto.AccountProvisioningResponse;
 import com.dmh.userservice.dto.AccountResponseDTO;
-import com.dmh.userservice.dto.CreateAccountRequestDTO;
 import com.dmh.userservice.dto.LoginRequest;
 import com.dmh.userservice.dto.LoginResponse;
 import com.dmh.userservice.dto.LogoutResponse;
 import com.dmh.userservice.dto.RegisterUserRequest;
+import com.dmh.userservice.dto.TokenValidationBatchResponse;
 import com.dmh.userservice.dto.UserResponse;
-import com.dmh.userservice.entity.TokenBlacklist;
+import com.dmh.userservice.entity.AccountProvisioningOutbox;
+import com.dmh.userservice.entity.ProvisioningStatus;
 import com.dmh.userservice.entity.User;
 import com.dmh.userservice.exception.InvalidCredentialsException;
+import com.dmh.userservice.exception.ServiceBusyException;
 import com.dmh.userservice.exception.UserAlreadyExistsException;
-import com.dmh.userservice.repository.TokenBlacklistRepository;
+import com.dmh.userservice.repository.AccountProvisioningOutboxRepository;
 import com.dmh.userservice.repository.UserRepository;
 import com.dmh.userservice.util.JwtUtil;
 import com.dmh.userservice.validator.PasswordValidator;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
+
+import java.util.List;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -37,19 +43,34 @@ public class UserService {
     private final PasswordValidator passwordValidator;
     private final BCryptPasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
-    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final TokenBlacklistStore tokenBlacklistStore;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordCostCalibrator passwordCostCalibrator;
+    private final AccountProvisioningOutboxRepository outboxRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final UserProfileCache userProfileCache;
 
     public UserService(UserRepository userRepository,
                        AccountServiceClient accountServiceClient,
                        PasswordValidator passwordValidator,
                        JwtUtil jwtUtil,
-                       TokenBlacklistRepository tokenBlacklistRepository) {
+                       TokenBlacklistStore tokenBlacklistStore,
+                       PasswordHashingExecutor passwordHashingExecutor,
+                       PasswordCostCalibrator passwordCostCalibrator,
+                       AccountProvisioningOutboxRepository outboxRepository,
+                       RefreshTokenService refreshTokenService,
+                       UserProfileCache userProfileCache) {
         this.userRepository = userRepository;
         this.accountServiceClient = accountServiceClient;
         this.passwordValidator = passwordValidator;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordEncoder = passwordCostCalibrator.getEncoder();
         this.jwtUtil = jwtUtil;
-        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.tokenBlacklistStore = tokenBlacklistStore;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.passwordCostCalibrator = passwordCostCalibrator;
+        this.outboxRepository = outboxRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.userProfileCache = userProfileCache;
     }
 
     @Transactional
@@ -66,7 +87,9 @@ public class UserService {
 
         passwordValidator.validate(request.getPassword());
 
-        String hashedPassword = passwordEncoder.encode(request.getPassword());
+        // BCrypt corre en su propio pool, fuera de los hilos de Tomcat
+        String hashedPassword = passwordHashingExecutor.call("encode",
+                () -> passwordEncoder.encode(request.getPassword()));
 
         User user = new User();
         user.setFirstName(request.getFirstName());
@@ -79,13 +102,8 @@ public class UserService {
         User savedUser = userRepository.save(user);
         logger.info("User created with ID: {}", savedUser.getId());
 
-
-        CreateAccountRequestDTO accountRequest = new CreateAccountRequestDTO(savedUser.getId());
-        ResponseEntity<AccountResponseDTO> accountResponse = accountServiceClient.createAccount(accountRequest, savedUser.getId());
-        AccountResponseDTO account = accountResponse.getBody();
-
-        logger.info("Account created for userId: {}, CVU: {}, Alias: {}",
-                savedUser.getId(), account.getCvu(), account.getAlias());
+        // La cuenta se crea en segundo plano (AccountProvisioningDispatcher), fuera de esta transacción
+        outboxRepository.save(AccountProvisioningOutbox.pendingFor(savedUser.getId()));
 
         return UserResponse.builder()
                 .id(savedUser.getId())
@@ -94,8 +112,7 @@ public class UserService {
                 .dni(savedUser.getDni())
                 .email(savedUser.getEmail())
                 .phone(savedUser.getPhone())
-                .cvu(account.getCvu())
-                .alias(account.getAlias())
+                .accountStatus(ProvisioningStatus.PENDING)
                 .build();
     }
 
@@ -109,91 +126,224 @@ public class UserService {
                     return new InvalidCredentialsException();
                 });
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        boolean passwordMatches = passwordHashingExecutor.call("matches",
+                () -> passwordEncoder.matches(request.getPassword(), user.getPassword()));
+        if (!passwordMatches) {
             logger.warn("Login failed: Invalid password for email: {}", request.getEmail());
             throw new InvalidCredentialsException();
         }
+        rehashIfNeeded(user, request.getPassword());
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId());
+        LoginResponse response = issueTokens(user, refreshTokenService.issue(user));
         logger.info("Login successful for user ID: {}", user.getId());
+        return response;
+    }
+
+    /**
+     * Renueva la sesión con un refresh token: sin BCrypt, solo un lookup y una firma HMAC.
+     * El refresh token presentado queda consumido y se devuelve uno nuevo.
+     */
+    public LoginResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        logger.debug("Session refreshed for user ID: {}", rotation.user().getId());
+        return issueTokens(rotation.user(), rotation.refreshToken());
+    }
+
+    private LoginResponse issueTokens(User user, RefreshTokenService.IssuedToken refreshToken) {
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getTokenVersion(),
+                refreshToken.familyId());
 
         return LoginResponse.builder()
                 .token(token)
+                .refreshToken(refreshToken.value())
                 .userId(user.getId())
                 .email(user.getEmail())
-                .expiresIn(3600000L)
+                .expiresIn(jwtUtil.getExpiration())
+                .refreshExpiresIn(refreshTokenService.getTtl().toMillis())
                 .build();
     }
 
+    /**
+     * Re-hashea con el costo calibrado si el hash guardado usa uno menor.
+     * Es best-effort: si el pool está lleno, el login sigue y se reintenta en el próximo.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordCostCalibrator.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHashingExecutor.call("encode", () -> passwordEncoder.encode(rawPassword)));
+            userRepository.save(user);
+            logger.info("Password rehashed with strength {} for user ID: {}",
+                    passwordCostCalibrator.getStrength(), user.getId());
+        } catch (ServiceBusyException e) {
+            logger.warn("Skipping password rehash for user ID {}: hashing pool busy", user.getId());
+        }
+    }
 
-    @Transactional
     public LogoutResponse logout(String token) {
         logger.info("Logout attempt with token");
 
-        if (!jwtUtil.validateToken(token)) {
+        VerifiedClaims claims;
+        try {
+            claims = jwtUtil.verify(token);
+        } catch (JwtVerificationException e) {
             logger.warn("Logout failed: Invalid or expired token");
             throw new InvalidCredentialsException("Invalid or expired token");
         }
 
+        Long userId = claims.userId();
 
-        Long userId = jwtUtil.extractUserId(token);
-        Date expirationDate = jwtUtil.extractExpiration(token);
+        // Revocación en memoria; TokenBlacklistStore la guarda y la publica en el feed en segundo plano
+        if (tokenBlacklistStore.revoke(TokenDigest.sha256(token), userId, claims.expiresAt())) {
+            logger.info("Token added to blacklist for user ID: {}", userId);
+        } else {
+            logger.info("Token already in blacklist for user ID: {}", userId);
+        }
 
-        LocalDateTime expiresAt = expirationDate.toInstant()
-                .atZone(ZoneId.of("UTC"))
-                .toLocalDateTime();
+        // Sin esto, el refresh token de la sesión seguiría emitiendo access tokens
+        if (claims.sessionId() != null) {
+            int revoked = refreshTokenService.revokeFamily(claims.sessionId());
+            logger.info("Revoked {} refresh tokens of session for user ID: {}", revoked, userId);
+        }
 
+        return LogoutResponse.builder()
+                .message("Logout successful")
+                .userId(userId)
+                .build();
+    }
 
-        if (tokenBlacklistRepository.existsByToken(token)) {
-            logger.info("Token already in blacklist for user ID: {}", userId);
-            return LogoutResponse.builder()
-                    .message("Logout successful")
-                    .userId(userId)
-                    .build();
+    /**
+     * Logout en todos lados: sube la época de tokens del usuario, lo que invalida
+     * todos sus tokens emitidos hasta ahora (incluido el de esta request).
+     */
+    public LogoutResponse logoutAll(String token) {
+        VerifiedClaims claims;
+        try {
+            claims = jwtUtil.verify(token);
+        } catch (JwtVerificationException e) {
+            logger.warn("Logout-all failed: Invalid or expired token");
+            throw new InvalidCredentialsException("Invalid or expired token");
         }
 
-        TokenBlacklist blacklistEntry = new TokenBlacklist();
-        blacklistEntry.setToken(token);
-        blacklistEntry.setUserId(userId);
-        blacklistEntry.setExpiresAt(expiresAt);
+        Long userId = claims.userId();
+        userRepository.incrementTokenVersion(userId);
+        long tokenVersion = userRepository.findTokenVersionById(userId)
+                .orElseThrow(() -> new InvalidCredentialsException("User not found with ID: " + userId));
 
-        tokenBlacklistRepository.save(blacklistEntry);
-        logger.info("Token added to blacklist for user ID: {}", userId);
+        tokenBlacklistStore.revokeAllBefore(userId, tokenVersion);
+        logger.info("All sessions revoked for user ID: {} (token version {})", userId, tokenVersion);
 
         return LogoutResponse.builder()
-                .message("Logout successful")
+                .message("Logged out from all sessions")
                 .userId(userId)
                 .build();
     }
 
+    /**
+     * Valida contra la blacklist en memoria: el digest del token y la época del usuario.
+     * Un token que no verifica no se rechaza acá (eso lo hace el gateway).
+     */
     public boolean isTokenValid(String token) {
-        return !tokenBlacklistRepository.existsByToken(token);
+        if (tokenBlacklistStore.isRevoked(TokenDigest.sha256(token))) {
+            return false;
+        }
+        try {
+            VerifiedClaims claims = jwtUtil.verify(token);
+            return !tokenBlacklistStore.isSuperseded(claims.userId(), claims.tokenVersion());
+        } catch (JwtVerificationException e) {
+            return true;
+        }
     }
 
     /**
-     * Obtiene un usuario por ID incluyendo datos de su cuenta
+     * Estado de revocación de varios tokens (por digest) sin ir a la base.
+     */
+    public TokenValidationBatchResponse validateTokens(List<String> digests) {
+        return TokenValidationBatchResponse.builder()
+                .revoked(tokenBlacklistStore.revocationStatus(digests))
+                .build();
+    }
+
+    /**
+     * Obtiene un usuario por ID incluyendo datos de su cuenta.
+     * Sin transacción: un hit del cache no toma conexión de la base.
      */
-    @Transactional(readOnly = true)
     public UserResponse getUserById(Long userId) {
         logger.info("Fetching user with ID: {}", userId);
+        return userProfileCache.get(userId, this::loadProfile);
+    }
 
+    /**
+     * account-service avisa que cambiaron los datos de la cuenta (alias).
+     * El aviso llega a una sola instancia; UserProfileCache lo propaga al resto.
+     */
+    public void onAccountChanged(Long userId) {
+        logger.debug("Account changed for user ID: {}, evicting cached profile", userId);
+        userProfileCache.invalidate(userId);
+    }
+
+    private UserResponse loadProfile(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> {
                     logger.warn("User not found with ID: {}", userId);
                     return new InvalidCredentialsException("User not found with ID: " + userId);
                 });
 
-        // Obtener datos de la cuenta
-        ResponseEntity<AccountResponseDTO> accountResponse = accountServiceClient.getAccountByUserId(userId, userId);
-        AccountResponseDTO account = accountResponse.getBody();
-
-        return UserResponse.builder()
+        return withAccount(UserResponse.builder()
                 .id(user.getId())
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .dni(user.getDni())
                 .email(user.getEmail())
-                .phone(user.getPhone())
+                .phone(user.getPhone()), userId);
+    }
+
+    /**
+     * Completa la respuesta con los datos de la cuenta. Si la cuenta todavía no
+     * se creó (outbox pendiente o fallido) no hay nada que pedirle a account-service.
+     */
+    private UserResponse withAccount(UserResponse.UserResponseBuilder response, Long userId) {
+        ProvisioningStatus status = outboxRepository.findByUserId(userId)
+                .map(AccountProvisioningOutbox::getStatus)
+                .orElse(ProvisioningStatus.PROVISIONED);
+        if (status != ProvisioningStatus.PROVISIONED) {
+            return response.accountStatus(status).build();
+        }
+
+        ResponseEntity<AccountResponseDTO> accountResponse = accountServiceClient.getAccountByUserId(userId, userId);
+        AccountResponseDTO account = accountResponse.getBody();
+
+        return response
+                .cvu(account.getCvu())
+                .alias(account.getAlias())
+                .accountStatus(ProvisioningStatus.PROVISIONED)
+                .build();
+    }
+
+    /**
+     * Estado del alta de la cuenta del usuario, con el CVU y el alias asignados una vez creada.
+     * Usuarios registrados antes del outbox no tienen fila: se consulta account-service.
+     */
+    @Transactional(readOnly = true)
+    public AccountProvisioningResponse getAccountProvisioning(Long userId) {
+        Optional<AccountProvisioningOutbox> entry = outboxRepository.findByUserId(userId);
+        if (entry.isPresent()) {
+            return AccountProvisioningResponse.builder()
+                    .userId(userId)
+                    .status(entry.get().getStatus())
+                    .cvu(entry.get().getCvu())
+                    .alias(entry.get().getAlias())
+                    .build();
+        }
+
+        if (!userRepository.existsById(userId)) {
+            throw new InvalidCredentialsException("User not found with ID: " + userId);
+        }
+        AccountResponseDTO account = accountServiceClient.getAccountByUserId(userId, userId).getBody();
+        return AccountProvisioningResponse.builder()
+                .userId(userId)
+                .status(ProvisioningStatus.PROVISIONED)
                 .cvu(account.getCvu())
                 .alias(account.getAlias())
                 .build();
@@ -229,20 +379,15 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        userProfileCache.invalidate(userId);
 
-        // Obtener datos de la cuenta para incluir en la respuesta
-        ResponseEntity<AccountResponseDTO> accountResponse = accountServiceClient.getAccountByUserId(userId, userId);
-        AccountResponseDTO account = accountResponse.getBody();
-
-        return UserResponse.builder()
+        // Datos de la cuenta para incluir en la respuesta
+        return withAccount(UserResponse.builder()
                 .id(updatedUser.getId())
                 .firstName(updatedUser.getFirstName())
                 .lastName(updatedUser.getLastName())
                 .dni(updatedUser.getDni())
                 .email(updatedUser.getEmail())
-                .phone(updatedUser.getPhone())
-                .cvu(account.getCvu())
-                .alias(account.getAlias())
-                .build();
+                .phone(updatedUser.getPhone()), userId);
     }
 }
@@ -1,18 +1,16 @@
 package com.dmh.userservice.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import com.dmh.jwt.JwtSigner;
+import com.dmh.jwt.JwtVerificationException;
+import com.dmh.jwt.JwtVerifier;
+import com.dmh.jwt.VerifiedClaims;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 /**
  * Utilidad para generar y validar JWT tokens.
@@ -21,23 +19,21 @@ import java.util.function.Function;
  * - Generar tokens JWT con información del usuario
  * - Validar tokens (firma, expiración)
  * - Extraer información del token (claims)
+ *
+ * La clave de firma y el parser se construyen una sola vez (jwt-core).
  */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtSigner signer;
+    private final JwtVerifier verifier;
+    private final Long expiration;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    /**
-     * Genera la clave de firma a partir del secret en Base64.
-     * Usa HMAC-SHA256 para firmar el token.
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration) {
+        this.signer = new JwtSigner(secret);
+        this.verifier = new JwtVerifier(secret);
+        this.expiration = expiration;
     }
 
     /**
@@ -45,94 +41,80 @@ public class JwtUtil {
      * 
      * @param email Email del usuario (subject)
      * @param userId ID del usuario
+     * @param tokenVersion época de tokens actual del usuario (User.tokenVersion)
      * @return Token JWT firmado
      */
-    public String generateToken(String email, Long userId) {
+    public String generateToken(String email, Long userId, long tokenVersion) {
+        return generateToken(email, userId, tokenVersion, null);
+    }
+
+    /**
+     * Genera un token JWT ligado a una sesión.
+     *
+     * @param sessionId familia de refresh tokens de la sesión (claim "sid"), o null
+     */
+    public String generateToken(String email, Long userId, long tokenVersion, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("email", email);
-        
-        return createToken(claims, email);
+        claims.put(VerifiedClaims.TOKEN_VERSION_CLAIM, tokenVersion);
+        if (sessionId != null) {
+            claims.put(VerifiedClaims.SESSION_ID_CLAIM, sessionId);
+        }
+
+        Instant now = Instant.now();
+        return signer.sign(claims, email, now, now.plusMillis(expiration));
     }
 
     /**
-     * Crea el token JWT con los claims y subject.
-     * 
-     * Estructura del token:
-     * - Header: algoritmo (HS256) y tipo (JWT)
-     * - Payload: claims (userId, email), subject, issued at, expiration
-     * - Signature: firma con secret key
+     * Vida de los tokens emitidos, en milisegundos.
      */
-    private String createToken(Map<String, Object> claims, String subject) {
-        Date now = new Date();
-        Date expirationDate = new Date(now.getTime() + expiration);
+    public long getExpiration() {
+        return expiration;
+    }
 
-        return Jwts.builder()
-                .setClaims(claims)                    // Datos custom (userId, email)
-                .setSubject(subject)                  // Subject = email
-                .setIssuedAt(now)                     // Fecha de emisión
-                .setExpiration(expirationDate)        // Fecha de expiración (1 hora)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)  // Firma con HMAC-SHA256
-                .compact();
+    /**
+     * Verifica firma y expiración en un único parseo.
+     *
+     * @throws JwtVerificationException si el token es inválido o expiró
+     */
+    public VerifiedClaims verify(String token) {
+        return verifier.verify(token);
     }
 
     /**
      * Extrae el email (subject) del token.
      */
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verifier.verify(token).subject();
     }
 
     /**
      * Extrae el userId del token.
      */
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verifier.verify(token).userId();
     }
 
     /**
      * Extrae la fecha de expiración del token.
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    /**
-     * Extrae un claim específico del token usando una función.
-     */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    /**
-     * Extrae todos los claims del token.
-     * Valida la firma usando la secret key.
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * Verifica si el token ha expirado.
-     */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return Date.from(verifier.verify(token).expiresAt());
     }
 
     /**
      * Valida que el token sea válido:
      * - El email coincide
      * - No ha expirado
-     * - La firma es válida (se valida en extractAllClaims)
+     * - La firma es válida
      */
     public Boolean validateToken(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        try {
+            return verifier.verify(token).subject().equals(email);
+        } catch (JwtVerificationException e) {
+            return false;
+        }
     }
 
     /**
@@ -141,9 +123,9 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token) {
         try {
-            extractAllClaims(token);  // Si no lanza excepción, es válido
-            return !isTokenExpired(token);
-        } catch (Exception e) {
+            verifier.verify(token);
+            return true;
+        } catch (JwtVerificationException e) {
             return false;
         }
     }
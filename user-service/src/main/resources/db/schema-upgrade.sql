@@ -0,0 +1,8 @@
+-- Cambios de esquema que ddl-auto: update no aplica sobre tablas existentes.
+-- Corre después de Hibernate (spring.jpa.defer-datasource-initialization) y es idempotente.
+
+-- token_blacklist guarda el digest (token_digest); la columna con el JWT completo quedó NOT NULL
+ALTER TABLE token_blacklist DROP COLUMN IF EXISTS token;
+
+-- Las filas EPOCH (logout en todos lados) no tienen digest
+ALTER TABLE token_blacklist ALTER COLUMN token_digest DROP NOT NULL;
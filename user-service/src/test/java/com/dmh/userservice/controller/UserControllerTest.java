@@ -3,20 +3,32 @@ package com.dmh.userservice.controller;
 import com.dmh.userservice.dto.LoginRequest;
 import com.dmh.userservice.dto.LoginResponse;
 import com.dmh.userservice.dto.RegisterUserRequest;
+import com.dmh.userservice.dto.TokenValidationBatchRequest;
+import com.dmh.userservice.dto.TokenValidationBatchResponse;
 import com.dmh.userservice.dto.UserResponse;
 import com.dmh.userservice.exception.InvalidPasswordException;
 import com.dmh.userservice.exception.UserAlreadyExistsException;
 import com.dmh.userservice.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -38,6 +50,17 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Test
     void testRegister_Success() throws Exception {
         String requestJson = """
@@ -185,6 +208,42 @@ class UserControllerTest {
             .andExpect(jsonPath("$.valid").value(false));
     }
 
+    @Test
+    void testValidateTokensBatch() throws Exception {
+        String revokedDigest = "a".repeat(64);
+        String validDigest = "b".repeat(64);
+        when(userService.validateTokens(anyList())).thenReturn(TokenValidationBatchResponse.builder()
+            .revoked(Map.of(revokedDigest, true, validDigest, false))
+            .build());
+
+        mockMvc.perform(post("/api/users/token/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("digests", List.of(revokedDigest, validDigest)))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.revoked." + revokedDigest).value(true))
+            .andExpect(jsonPath("$.revoked." + validDigest).value(false));
+
+        assertEquals(1, meterRegistry.get("user.token-validation.batch").timer().count());
+    }
+
+    @Test
+    void testValidateTokensBatch_TooManyDigests_ShouldReturnBadRequest() throws Exception {
+        List<String> digests = Collections.nCopies(TokenValidationBatchRequest.MAX_DIGESTS + 1, "a".repeat(64));
+
+        mockMvc.perform(post("/api/users/token/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("digests", digests))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testValidateTokensBatch_RawToken_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/users/token/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("digests", List.of("header.payload.signature")))))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testUpdateUser_EmptyRequest_ShouldReturnBadRequest() throws Exception {
         String emptyRequestJson = "{}";
@@ -0,0 +1,159 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.client.AccountServiceClient;
+import com.dmh.userservice.dto.AccountResponseDTO;
+import com.dmh.userservice.entity.AccountProvisioningOutbox;
+import com.dmh.userservice.entity.ProvisioningStatus;
+import com.dmh.userservice.repository.AccountProvisioningOutboxRepository;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountProvisioningDispatcherTest {
+
+    @Mock
+    private AccountProvisioningOutboxRepository outboxRepository;
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AccountProvisioningDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new AccountProvisioningDispatcher(outboxRepository, accountServiceClient,
+                new TransactionTemplate(transactionManager), meterRegistry,
+                10, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofMinutes(5), 3);
+    }
+
+    @Test
+    void testProvisionsClaimedBatch() {
+        AccountProvisioningOutbox entry = AccountProvisioningOutbox.pendingFor(1L);
+        when(outboxRepository.lockDueBatch(any(), eq(10))).thenReturn(List.of(entry));
+        when(outboxRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountServiceClient.createAccount(any(), eq(1L))).thenReturn(ResponseEntity.ok(account()));
+
+        dispatcher.dispatch();
+
+        assertEquals(ProvisioningStatus.PROVISIONED, entry.getStatus());
+        assertEquals("1234567890123456789012", entry.getCvu());
+        assertEquals("sol.luna.estrella", entry.getAlias());
+        verify(outboxRepository).save(entry);
+        assertEquals(1.0, meterRegistry.get("user.account-provisioning").tag("result", "provisioned").counter().count());
+    }
+
+    @Test
+    void testClaimSetsLeaseBeforeCallingAccountService() {
+        AccountProvisioningOutbox entry = AccountProvisioningOutbox.pendingFor(1L);
+        LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+        when(outboxRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(entry));
+        when(outboxRepository.saveAll(any())).thenAnswer(invocation -> {
+            assertTrue(entry.getNextAttemptAt().isAfter(before.plusSeconds(59)));
+            return invocation.getArgument(0);
+        });
+        when(accountServiceClient.createAccount(any(), eq(1L))).thenReturn(ResponseEntity.ok(account()));
+
+        dispatcher.dispatch();
+
+        verify(outboxRepository).saveAll(any());
+    }
+
+    @Test
+    void testExistingAccountIsTreatedAsProvisioned() {
+        AccountProvisioningOutbox entry = AccountProvisioningOutbox.pendingFor(1L);
+        when(accountServiceClient.createAccount(any(), eq(1L))).thenThrow(conflict());
+        when(accountServiceClient.getAccountByUserId(1L, 1L)).thenReturn(ResponseEntity.ok(account()));
+
+        dispatcher.provision(entry);
+
+        assertEquals(ProvisioningStatus.PROVISIONED, entry.getStatus());
+        assertEquals("sol.luna.estrella", entry.getAlias());
+    }
+
+    @Test
+    void testFailureSchedulesRetryWithBackoff() {
+        AccountProvisioningOutbox entry = AccountProvisioningOutbox.pendingFor(1L);
+        when(accountServiceClient.createAccount(any(), eq(1L))).thenThrow(new IllegalStateException("timeout"));
+
+        LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+        dispatcher.provision(entry);
+
+        assertEquals(ProvisioningStatus.PENDING, entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+        assertEquals("timeout", entry.getLastError());
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plusSeconds(1)));
+        verify(outboxRepository).save(entry);
+    }
+
+    @Test
+    void testMarksFailedAfterMaxAttempts() {
+        AccountProvisioningOutbox entry = AccountProvisioningOutbox.pendingFor(1L);
+        entry.setAttempts(2);
+        when(accountServiceClient.createAccount(any(), eq(1L))).thenThrow(new IllegalStateException("down"));
+
+        dispatcher.provision(entry);
+
+        assertEquals(ProvisioningStatus.FAILED, entry.getStatus());
+        assertEquals(3, entry.getAttempts());
+    }
+
+    @Test
+    void testFailedEntriesAreGaugedAndRequeued() {
+        when(outboxRepository.countByStatus(ProvisioningStatus.FAILED)).thenReturn(2L);
+        when(outboxRepository.requeueFailedForUser(eq(7L), any())).thenReturn(1);
+
+        assertEquals(2.0, meterRegistry.get("user.account-provisioning.failed").gauge().value());
+        assertEquals(1, dispatcher.requeueFailed(7L));
+        verify(outboxRepository).requeueFailedForUser(eq(7L), any(LocalDateTime.class));
+        verify(outboxRepository, never()).requeueFailed(any());
+    }
+
+    @Test
+    void testBackoffIsExponentialAndCapped() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoff(4));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(15));
+    }
+
+    private static AccountResponseDTO account() {
+        AccountResponseDTO account = new AccountResponseDTO();
+        account.setId(1L);
+        account.setUserId(1L);
+        account.setCvu("1234567890123456789012");
+        account.setAlias("sol.luna.estrella");
+        return account;
+    }
+
+    private static FeignException conflict() {
+        Request request = Request.create(Request.HttpMethod.POST, "/api/accounts", new HashMap<>(),
+                null, StandardCharsets.UTF_8, null);
+        return new FeignException.Conflict("Account already exists", request, null, null);
+    }
+}
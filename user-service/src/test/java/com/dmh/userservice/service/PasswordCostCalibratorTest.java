@@ -0,0 +1,51 @@
+package com.dmh.userservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordCostCalibratorTest {
+
+    @Test
+    void testPicksHighestStrengthWithinTarget() {
+        // 50 ms a costo 10 -> 100 ms a 11 -> 200 ms a 12 -> 400 ms a 13
+        assertEquals(12, PasswordCostCalibrator.strengthFor(Duration.ofMillis(50).toNanos(), 10, 14,
+                Duration.ofMillis(250)));
+    }
+
+    @Test
+    void testClampsToBounds() {
+        assertEquals(10, PasswordCostCalibrator.strengthFor(Duration.ofSeconds(1).toNanos(), 10, 14,
+                Duration.ofMillis(250)));
+        assertEquals(14, PasswordCostCalibrator.strengthFor(Duration.ofMillis(1).toNanos(), 10, 14,
+                Duration.ofMillis(250)));
+    }
+
+    @Test
+    void testCalibratesEncoderWithinBounds() {
+        PasswordCostCalibrator calibrator = new PasswordCostCalibrator(Duration.ofMillis(20), 4, 6,
+                new SimpleMeterRegistry());
+
+        assertTrue(calibrator.getStrength() >= 4 && calibrator.getStrength() <= 6);
+        String hash = calibrator.getEncoder().encode("Password123@");
+        assertTrue(hash.startsWith(String.format("$2a$%02d$", calibrator.getStrength())));
+        assertFalse(calibrator.needsRehash(hash));
+    }
+
+    @Test
+    void testNeedsRehashOnlyForBcryptWithLowerCost() {
+        PasswordCostCalibrator calibrator = new PasswordCostCalibrator(Duration.ofMillis(1), 5, 5,
+                new SimpleMeterRegistry());
+
+        assertTrue(calibrator.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+        // Un nodo con más costo calibrado no provoca re-hash de ida y vuelta
+        assertFalse(calibrator.needsRehash(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(calibrator.needsRehash(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(calibrator.needsRehash("plain-text"));
+        assertFalse(calibrator.needsRehash(null));
+    }
+}
@@ -0,0 +1,89 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testRunsTaskAndRecordsLatency() {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(1), meterRegistry);
+
+        assertEquals("hash", executor.call("encode", () -> "hash"));
+        assertEquals(1, meterRegistry.get("user.password.hashing").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void testRejectsImmediatelyWhenQueueIsFull() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // Un hilo ocupado y una tarea en cola
+        callers.submit(() -> executor.call("matches", () -> {
+            started.countDown();
+            return await();
+        }));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        callers.submit(() -> executor.call("matches", this::await));
+        waitForQueueDepth(1);
+
+        long start = System.nanoTime();
+        assertThrows(ServiceBusyException.class, () -> executor.call("matches", () -> true));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1.0, meterRegistry.get("user.password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void testTimesOutWhenResultTakesTooLong() {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofMillis(50), meterRegistry);
+
+        assertThrows(ServiceBusyException.class, () -> executor.call("encode", this::await));
+    }
+
+    @Test
+    void testPropagatesTaskExceptions() {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(1), meterRegistry);
+
+        assertThrows(IllegalArgumentException.class, () -> executor.call("encode", () -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    private boolean await() {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void waitForQueueDepth(double depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (meterRegistry.get("user.password.hashing.queue").gauge().value() < depth
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.dmh.userservice.service;
+
+import com.dmh.jwt.TokenDigest;
+import com.dmh.userservice.entity.RefreshToken;
+import com.dmh.userservice.entity.User;
+import com.dmh.userservice.exception.InvalidCredentialsException;
+import com.dmh.userservice.repository.RefreshTokenRepository;
+import com.dmh.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, meterRegistry,
+                Duration.ofDays(14), Duration.ofSeconds(10), 2);
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+        user.setTokenVersion(2L);
+    }
+
+    @Test
+    void testIssueStoresOnlyTheDigest() {
+        RefreshTokenService.IssuedToken issued = refreshTokenService.issue(user);
+        String raw = issued.value();
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(TokenDigest.sha256(raw), saved.getValue().getTokenHash());
+        assertNotEquals(raw, saved.getValue().getTokenHash());
+        assertEquals(1L, saved.getValue().getUserId());
+        assertEquals(2L, saved.getValue().getTokenVersion());
+        assertEquals(issued.familyId(), saved.getValue().getFamilyId());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(now().plusDays(13)));
+    }
+
+    @Test
+    void testRotateConsumesTokenAndIssuesNextInSameFamily() {
+        RefreshToken current = stored("raw", now().plusDays(1), null, 2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(refreshTokenRepository.consume(eq(7L), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        assertSame(user, rotation.user());
+        assertNotEquals("raw", rotation.refreshToken().value());
+        assertEquals(current.getFamilyId(), rotation.refreshToken().familyId());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(current.getFamilyId(), saved.getValue().getFamilyId());
+        assertEquals(TokenDigest.sha256(rotation.refreshToken().value()), saved.getValue().getTokenHash());
+    }
+
+    @Test
+    void testRotateRejectsUnknownToken() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotateRejectsExpiredToken() {
+        stored("raw", now().minusMinutes(1), null, 2L);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository, never()).consume(any(), any());
+    }
+
+    @Test
+    void testRotateRejectsTokenIssuedBeforeLogoutAll() {
+        stored("raw", now().plusDays(1), null, 1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository, never()).consume(any(), any());
+    }
+
+    @Test
+    void testReuseRevokesWholeFamily() {
+        RefreshToken current = stored("raw", now().plusDays(1), now().minusMinutes(5), 2L);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository).revokeFamily(eq(current.getFamilyId()), any());
+    }
+
+    @Test
+    void testReuseWithinGraceDoesNotRevokeFamily() {
+        stored("raw", now().plusDays(1), now().minusSeconds(2), 2L);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    @Test
+    void testConcurrentRotationOnlyOneWins() {
+        stored("raw", now().plusDays(1), null, 2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(refreshTokenRepository.consume(eq(7L), any())).thenReturn(0);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRevokeFamilyOnLogout() {
+        when(refreshTokenRepository.revokeFamily(eq("family-1"), any())).thenReturn(2);
+
+        assertEquals(2, refreshTokenService.revokeFamily("family-1"));
+        assertEquals(1.0, meterRegistry.get("user.refresh-tokens").tag("result", "logout").counter().count());
+    }
+
+    @Test
+    void testSweepDeletesInChunks() {
+        when(refreshTokenRepository.deleteExpiredChunk(any(), anyInt())).thenReturn(2, 2, 1);
+
+        refreshTokenService.sweepExpired();
+
+        verify(refreshTokenRepository, times(3)).deleteExpiredChunk(any(), eq(2));
+    }
+
+    private RefreshToken stored(String raw, LocalDateTime expiresAt, LocalDateTime revokedAt, long tokenVersion) {
+        RefreshToken token = new RefreshToken();
+        token.setId(7L);
+        token.setTokenHash(TokenDigest.sha256(raw));
+        token.setUserId(1L);
+        token.setFamilyId("family-1");
+        token.setTokenVersion(tokenVersion);
+        token.setExpiresAt(expiresAt);
+        token.setRevokedAt(revokedAt);
+        when(refreshTokenRepository.findByTokenHash(TokenDigest.sha256(raw))).thenReturn(Optional.of(token));
+        return token;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,205 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.entity.RevocationKind;
+import com.dmh.userservice.entity.TokenBlacklist;
+import com.dmh.userservice.repository.TokenBlacklistRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenBlacklistStoreTest {
+
+    @Mock
+    private TokenBlacklistRepository tokenBlacklistRepository;
+
+    @Mock
+    private TokenRevocationFeed tokenRevocationFeed;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TokenBlacklistStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(tokenBlacklistRepository.findByExpiresAtAfterOrderByIdAsc(any())).thenReturn(List.of(entry(5L, "loaded")));
+        store = new TokenBlacklistStore(tokenBlacklistRepository, tokenRevocationFeed, meterRegistry, 2, 3_600_000L, 3);
+    }
+
+    @Test
+    void testLoadsActiveRevocationsAtStartup() {
+        assertTrue(store.isRevoked("loaded"));
+        assertFalse(store.isRevoked("other"));
+    }
+
+    @Test
+    void testRevocationStatusForBatch() {
+        store.revoke("digest", 1L, Instant.now().plusSeconds(3600));
+
+        Map<String, Boolean> status = store.revocationStatus(List.of("loaded", "other", "digest"));
+
+        assertEquals(List.of("loaded", "other", "digest"), List.copyOf(status.keySet()));
+        assertTrue(status.get("loaded"));
+        assertFalse(status.get("other"));
+        assertTrue(status.get("digest"));
+        assertEquals(3, meterRegistry.get("user.token-blacklist.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testRevokeIsVisibleBeforeBeingPersisted() {
+        assertTrue(store.revoke("digest", 1L, Instant.now().plusSeconds(3600)));
+
+        assertTrue(store.isRevoked("digest"));
+        assertFalse(store.revoke("digest", 1L, Instant.now().plusSeconds(3600)));
+        verify(tokenBlacklistRepository, never()).save(any());
+    }
+
+    @Test
+    void testFlushPersistsAndPublishes() {
+        when(tokenBlacklistRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        store.revoke("digest", 1L, Instant.now().plusSeconds(3600));
+
+        store.flush();
+
+        verify(tokenBlacklistRepository).save(argThatDigest("digest"));
+        verify(tokenRevocationFeed).publish(argThatDigest("digest"));
+        assertEquals(0.0, meterRegistry.get("user.token-blacklist.pending").gauge().value());
+    }
+
+    @Test
+    void testFlushRetriesWhenDatabaseFails() {
+        when(tokenBlacklistRepository.save(any()))
+                .thenThrow(new QueryTimeoutException("db down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        store.revoke("digest", 1L, Instant.now().plusSeconds(3600));
+
+        store.flush();
+        assertEquals(1.0, meterRegistry.get("user.token-blacklist.pending").gauge().value());
+
+        store.flush();
+        verify(tokenRevocationFeed, times(1)).publish(any());
+    }
+
+    @Test
+    void testFlushSkipsRevocationsPersistedElsewhere() {
+        when(tokenBlacklistRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(tokenBlacklistRepository.existsByTokenDigest("digest")).thenReturn(true);
+        store.revoke("digest", 1L, Instant.now().plusSeconds(3600));
+
+        store.flush();
+
+        verify(tokenRevocationFeed, never()).publish(any());
+        assertEquals(0.0, meterRegistry.get("user.token-blacklist.pending").gauge().value());
+    }
+
+    @Test
+    void testFlushRetriesIntegrityErrorsThatAreNotDuplicates() {
+        when(tokenBlacklistRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("null value in column \"token\""))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(tokenBlacklistRepository.existsByTokenDigest("digest")).thenReturn(false);
+        store.revoke("digest", 1L, Instant.now().plusSeconds(3600));
+
+        store.flush();
+
+        verify(tokenRevocationFeed, never()).publish(any());
+        assertEquals(1.0, meterRegistry.get("user.token-blacklist.pending").gauge().value());
+        assertEquals(1.0, meterRegistry.get("user.token-blacklist.persist-errors").counter().count());
+
+        store.flush();
+
+        verify(tokenRevocationFeed).publish(argThat(saved -> "digest".equals(saved.getTokenDigest())));
+    }
+
+    @Test
+    void testSyncRereadsWindowBeforeHighWaterMark() {
+        // El id 4 confirmó después de que se vio el 5: entra por la ventana
+        when(tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(2L), any()))
+                .thenReturn(List.of(entry(4L, "late"), entry(5L, "loaded"), entry(6L, "remote")));
+
+        store.syncFromDatabase();
+
+        assertTrue(store.isRevoked("late"));
+        assertTrue(store.isRevoked("remote"));
+        assertEquals(3.0, meterRegistry.get("user.token-blacklist.size").gauge().value());
+    }
+
+    @Test
+    void testSyncReadsAfterHighWaterMark() {
+        when(tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(2L), any()))
+                .thenReturn(List.of(entry(6L, "remote")));
+
+        store.syncFromDatabase();
+
+        assertTrue(store.isRevoked("remote"));
+    }
+
+    @Test
+    void testRevokeAllBeforeSupersedesOlderVersions() {
+        store.revokeAllBefore(7L, 3L);
+
+        assertTrue(store.isSuperseded(7L, 2L));
+        assertFalse(store.isSuperseded(7L, 3L));
+        assertFalse(store.isSuperseded(8L, 0L));
+        assertEquals(1.0, meterRegistry.get("user.token-blacklist.pending").gauge().value());
+    }
+
+    @Test
+    void testSyncKeepsHighestEpoch() {
+        store.revokeAllBefore(7L, 5L);
+        TokenBlacklist olderEpoch = entry(6L, null);
+        olderEpoch.setKind(RevocationKind.EPOCH);
+        olderEpoch.setUserId(7L);
+        olderEpoch.setTokenVersion(4L);
+        when(tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(2L), any()))
+                .thenReturn(List.of(olderEpoch));
+
+        store.syncFromDatabase();
+
+        assertTrue(store.isSuperseded(7L, 4L));
+    }
+
+    @Test
+    void testSweepPurgesExpiredInChunks() {
+        when(tokenBlacklistRepository.deleteExpiredChunk(any(), anyInt())).thenReturn(2, 2, 1);
+        store.revoke("expired", 1L, Instant.now().minusSeconds(1));
+
+        store.sweepExpired();
+
+        assertFalse(store.isRevoked("expired"));
+        assertTrue(store.isRevoked("loaded"));
+        verify(tokenBlacklistRepository, times(3)).deleteExpiredChunk(any(), eq(2));
+        assertEquals(5.0, meterRegistry.get("user.token-blacklist.purged").counter().count());
+    }
+
+    private static TokenBlacklist argThatDigest(String digest) {
+        return argThat(entry -> entry != null && digest.equals(entry.getTokenDigest()));
+    }
+
+    private static TokenBlacklist entry(Long id, String digest) {
+        TokenBlacklist entry = new TokenBlacklist();
+        entry.setId(id);
+        entry.setTokenDigest(digest);
+        entry.setUserId(1L);
+        entry.setExpiresAt(LocalDateTime.now(ZoneOffset.UTC).plusHours(1));
+        return entry;
+    }
+}
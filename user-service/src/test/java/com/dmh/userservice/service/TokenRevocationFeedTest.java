@@ -0,0 +1,106 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.entity.TokenBlacklist;
+import com.dmh.userservice.repository.TokenBlacklistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationFeedTest {
+
+    @Mock
+    private TokenBlacklistRepository tokenBlacklistRepository;
+
+    private TokenRevocationFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        when(tokenBlacklistRepository.findTopByOrderByIdDesc()).thenReturn(Optional.of(entry(10L)));
+        feed = new TokenRevocationFeed(tokenBlacklistRepository, Duration.ofMinutes(10), Duration.ofSeconds(15), 3);
+    }
+
+    @Test
+    void testSubscribe_FullResyncWithoutCursor() {
+        when(tokenBlacklistRepository.findByExpiresAtAfterOrderByIdAsc(any(LocalDateTime.class)))
+                .thenReturn(List.of(entry(1L), entry(2L)));
+
+        SseEmitter emitter = feed.subscribe(null);
+
+        assertNotNull(emitter);
+        assertEquals(1, feed.getSubscriberCount());
+        verify(tokenBlacklistRepository, never()).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void testSubscribe_ResumesFromCursor() {
+        // Relee rescan-window filas antes del cursor
+        when(tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(2L), any(LocalDateTime.class)))
+                .thenReturn(List.of(entry(6L)));
+
+        feed.subscribe(5L);
+
+        verify(tokenBlacklistRepository, never()).findByExpiresAtAfterOrderByIdAsc(any());
+    }
+
+    @Test
+    void testPoll_SkippedWithoutSubscribers() {
+        feed.pollNewRevocations();
+
+        verify(tokenBlacklistRepository, never()).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void testPoll_ReadsAfterHighWaterMark() {
+        when(tokenBlacklistRepository.findByExpiresAtAfterOrderByIdAsc(any(LocalDateTime.class))).thenReturn(List.of());
+        when(tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(7L), any(LocalDateTime.class)))
+                .thenReturn(List.of(entry(11L)));
+        feed.subscribe(null);
+
+        feed.pollNewRevocations();
+
+        verify(tokenBlacklistRepository).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(7L), any(LocalDateTime.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPoll_PicksUpLowerIdCommittedLate() {
+        // Primera lectura: la 12 ya confirmó, la 11 todavía no
+        when(tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(7L), any(LocalDateTime.class)))
+                .thenReturn(List.of(entry(12L)));
+        when(tokenBlacklistRepository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(9L), any(LocalDateTime.class)))
+                .thenReturn(List.of(entry(11L), entry(12L)));
+        SseEmitter emitter = spy(new SseEmitter());
+        ((List<SseEmitter>) ReflectionTestUtils.getField(feed, "emitters")).add(emitter);
+
+        feed.pollNewRevocations();
+        feed.pollNewRevocations();
+
+        // 12 una sola vez, 11 aunque llegó después
+        verify(tokenBlacklistRepository).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(9L), any(LocalDateTime.class));
+        assertDoesNotThrow(() -> verify(emitter, times(2)).send(any(SseEmitter.SseEventBuilder.class)));
+    }
+
+    private TokenBlacklist entry(Long id) {
+        TokenBlacklist entry = new TokenBlacklist();
+        entry.setId(id);
+        entry.setTokenDigest("digest-" + id);
+        entry.setUserId(1L);
+        entry.setExpiresAt(LocalDateTime.now().plusHours(1));
+        return entry;
+    }
+}
@@ -0,0 +1,90 @@
+package com.dmh.userservice.service;
+
+import com.dmh.userservice.dto.UserResponse;
+import com.dmh.userservice.entity.ProvisioningStatus;
+import com.dmh.userservice.repository.ProfileInvalidationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private ProfileInvalidationRepository invalidationRepository;
+
+    private UserProfileCache cache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserProfileCache(invalidationRepository, 100, Duration.ofMinutes(10), Duration.ofSeconds(5),
+                Duration.ofHours(1), 2, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testInvalidationFromAnotherInstanceIsApplied() {
+        cache.get(1L, this::load);
+        when(invalidationRepository.findUserIdsInvalidatedSince(any())).thenReturn(List.of(1L));
+
+        cache.syncInvalidations();
+        cache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testSyncRereadsTrailingWindow() {
+        LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+        cache.syncInvalidations();
+        cache.syncInvalidations();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(invalidationRepository, times(2)).findUserIdsInvalidatedSince(since.capture());
+        // La segunda lectura arranca sync-lag antes de la primera, no donde terminó
+        assertTrue(since.getAllValues().get(1).isBefore(before.minusSeconds(4)));
+    }
+
+    @Test
+    void testLocalInvalidationIsPublished() {
+        cache.get(1L, this::load);
+
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+        verify(invalidationRepository).save(argThat(invalidation -> invalidation.getUserId().equals(1L)));
+    }
+
+    @Test
+    void testSweepDeletesInChunks() {
+        when(invalidationRepository.deleteOlderThanChunk(any(), anyInt())).thenReturn(2, 1);
+
+        cache.sweepInvalidations();
+
+        verify(invalidationRepository, times(2)).deleteOlderThanChunk(any(), eq(2));
+    }
+
+    private UserResponse load(Long userId) {
+        loads.incrementAndGet();
+        return UserResponse.builder().id(userId).accountStatus(ProvisioningStatus.PROVISIONED).build();
+    }
+}
@@ -1,18 +1,28 @@
 package com.dmh.userservice.service;
 
+import com.dmh.jwt.TokenDigest;
+import com.dmh.jwt.VerifiedClaims;
 import com.dmh.userservice.client.AccountServiceClient;
+import com.dmh.userservice.dto.AccountProvisioningResponse;
 import com.dmh.userservice.dto.AccountResponseDTO;
 import com.dmh.userservice.dto.LoginRequest;
 import com.dmh.userservice.dto.LoginResponse;
 import com.dmh.userservice.dto.RegisterUserRequest;
-import com.dmh.userservice.entity.TokenBlacklist;
+import com.dmh.userservice.dto.UpdateUserRequest;
+import com.dmh.userservice.dto.UserResponse;
+import com.dmh.userservice.entity.AccountProvisioningOutbox;
+import com.dmh.userservice.entity.ProvisioningStatus;
+import com.dmh.userservice.entity.RefreshToken;
 import com.dmh.userservice.entity.User;
 import com.dmh.userservice.exception.InvalidCredentialsException;
 import com.dmh.userservice.exception.UserAlreadyExistsException;
-import com.dmh.userservice.repository.TokenBlacklistRepository;
+import com.dmh.userservice.repository.AccountProvisioningOutboxRepository;
+import com.dmh.userservice.repository.ProfileInvalidationRepository;
+import com.dmh.userservice.repository.RefreshTokenRepository;
 import com.dmh.userservice.repository.UserRepository;
 import com.dmh.userservice.util.JwtUtil;
 import com.dmh.userservice.validator.PasswordValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,10 +32,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -36,7 +51,7 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private TokenBlacklistRepository tokenBlacklistRepository;
+    private TokenBlacklistStore tokenBlacklistStore;
 
     @Mock
     private AccountServiceClient accountServiceClient;
@@ -50,6 +65,18 @@ class UserServiceTest {
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Mock
+    private AccountProvisioningOutboxRepository outboxRepository;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private ProfileInvalidationRepository profileInvalidationRepository;
+
     private UserService userService;
 
     @BeforeEach
@@ -59,8 +86,16 @@ class UserServiceTest {
             accountServiceClient,
             passwordValidator,
             jwtUtil,
-            tokenBlacklistRepository
+            tokenBlacklistStore,
+            new PasswordHashingExecutor(1, 4, Duration.ofSeconds(5), new SimpleMeterRegistry()),
+            new PasswordCostCalibrator(Duration.ofMillis(1), 5, 5, new SimpleMeterRegistry()),
+            outboxRepository,
+            refreshTokenService,
+            new UserProfileCache(profileInvalidationRepository, 100, Duration.ofMinutes(10), Duration.ofSeconds(5),
+                Duration.ofHours(1), 1000, new SimpleMeterRegistry())
         );
+        lenient().when(refreshTokenService.getTtl()).thenReturn(Duration.ofDays(14));
+        lenient().when(refreshTokenService.issue(any())).thenReturn(new RefreshTokenService.IssuedToken("refresh.token", "family-1"));
         ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
     }
 
@@ -82,16 +117,111 @@ class UserServiceTest {
             return user;
         });
 
-        AccountResponseDTO accountResponse = new AccountResponseDTO();
-        accountResponse.setId(1L);
-        accountResponse.setCvu("1234567890123456789012");
-        accountResponse.setAlias("sol.luna.estrella");
-
-        when(accountServiceClient.createAccount(any(), eq(1L))).thenReturn(ResponseEntity.ok(accountResponse));
+        UserResponse response = userService.registerUser(request);
 
-        assertDoesNotThrow(() -> userService.registerUser(request));
+        assertEquals(ProvisioningStatus.PENDING, response.getAccountStatus());
+        assertNull(response.getCvu());
         verify(userRepository, times(1)).save(any(User.class));
-        verify(accountServiceClient, times(1)).createAccount(any(), eq(1L));
+        verify(outboxRepository).save(argThat(entry ->
+                entry.getUserId().equals(1L) && entry.getStatus() == ProvisioningStatus.PENDING));
+        // La cuenta no se crea dentro de la transacción del registro
+        verifyNoInteractions(accountServiceClient);
+    }
+
+    @Test
+    void testGetUserById_PendingAccountSkipsAccountService() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(outboxRepository.findByUserId(1L)).thenReturn(Optional.of(AccountProvisioningOutbox.pendingFor(1L)));
+
+        UserResponse response = userService.getUserById(1L);
+
+        assertEquals(ProvisioningStatus.PENDING, response.getAccountStatus());
+        verifyNoInteractions(accountServiceClient);
+    }
+
+    @Test
+    void testGetUserById_CachesProfileWithAccount() {
+        stubProvisionedUser("sol.luna.estrella");
+
+        UserResponse first = userService.getUserById(1L);
+        UserResponse second = userService.getUserById(1L);
+
+        assertEquals("sol.luna.estrella", second.getAlias());
+        assertSame(first, second);
+        verify(userRepository, times(1)).findById(1L);
+        verify(accountServiceClient, times(1)).getAccountByUserId(1L, 1L);
+    }
+
+    @Test
+    void testGetUserById_DoesNotCachePendingAccount() {
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(outboxRepository.findByUserId(1L)).thenReturn(Optional.of(AccountProvisioningOutbox.pendingFor(1L)));
+
+        userService.getUserById(1L);
+        userService.getUserById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testAccountChangedEvictsCachedProfile() {
+        stubProvisionedUser("sol.luna.estrella");
+        userService.getUserById(1L);
+
+        when(accountServiceClient.getAccountByUserId(1L, 1L)).thenReturn(ResponseEntity.ok(
+            AccountResponseDTO.builder().cvu("1234567890123456789012").alias("mar.rio.lago").build()));
+        userService.onAccountChanged(1L);
+
+        assertEquals("mar.rio.lago", userService.getUserById(1L).getAlias());
+    }
+
+    @Test
+    void testUpdateUserEvictsCachedProfile() {
+        User user = stubProvisionedUser("sol.luna.estrella");
+        userService.getUserById(1L);
+        when(userRepository.save(user)).thenReturn(user);
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setPhone("5491166666666");
+        userService.updateUser(1L, request);
+
+        assertEquals("5491166666666", userService.getUserById(1L).getPhone());
+        verify(accountServiceClient, times(3)).getAccountByUserId(1L, 1L);
+        // Las demás instancias se enteran por profile_invalidations
+        verify(profileInvalidationRepository).save(argThat(invalidation -> invalidation.getUserId().equals(1L)));
+    }
+
+    private User stubProvisionedUser(String alias) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+        user.setPhone("5491155555555");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(outboxRepository.findByUserId(1L)).thenReturn(Optional.empty());
+        when(accountServiceClient.getAccountByUserId(1L, 1L)).thenReturn(ResponseEntity.ok(
+            AccountResponseDTO.builder().cvu("1234567890123456789012").alias(alias).build()));
+        return user;
+    }
+
+    @Test
+    void testGetAccountProvisioning_ReturnsAssignedCvuAndAlias() {
+        AccountProvisioningOutbox entry = AccountProvisioningOutbox.pendingFor(1L);
+        entry.setStatus(ProvisioningStatus.PROVISIONED);
+        entry.setCvu("1234567890123456789012");
+        entry.setAlias("sol.luna.estrella");
+        when(outboxRepository.findByUserId(1L)).thenReturn(Optional.of(entry));
+
+        AccountProvisioningResponse response = userService.getAccountProvisioning(1L);
+
+        assertEquals(ProvisioningStatus.PROVISIONED, response.getStatus());
+        assertEquals("1234567890123456789012", response.getCvu());
+        assertEquals("sol.luna.estrella", response.getAlias());
     }
 
     @Test
@@ -134,7 +264,9 @@ class UserServiceTest {
 
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtUtil.generateToken(anyString(), anyLong())).thenReturn("jwt.token.here");
+        when(jwtUtil.generateToken(anyString(), anyLong(), anyLong(), eq("family-1"))).thenReturn("jwt.token.here");
+        when(jwtUtil.getExpiration()).thenReturn(900_000L);
+        when(refreshTokenService.issue(user)).thenReturn(new RefreshTokenService.IssuedToken("refresh.token", "family-1"));
 
         LoginResponse response = userService.login(request);
 
@@ -142,6 +274,100 @@ class UserServiceTest {
         assertEquals(1L, response.getUserId());
         assertEquals("juan@example.com", response.getEmail());
         assertNotNull(response.getToken());
+        assertEquals("refresh.token", response.getRefreshToken());
+        assertEquals(900_000L, response.getExpiresIn());
+        assertEquals(Duration.ofDays(14).toMillis(), response.getRefreshExpiresIn());
+    }
+
+    @Test
+    void testRefresh_IssuesNewTokensWithoutHashingPassword() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+        user.setTokenVersion(3L);
+
+        when(refreshTokenService.rotate("old.refresh")).thenReturn(new RefreshTokenService.Rotation(user,
+                new RefreshTokenService.IssuedToken("new.refresh", "family-1")));
+        when(jwtUtil.generateToken("juan@example.com", 1L, 3L, "family-1")).thenReturn("jwt.token.here");
+
+        LoginResponse response = userService.refresh("old.refresh");
+
+        assertEquals("jwt.token.here", response.getToken());
+        assertEquals("new.refresh", response.getRefreshToken());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void testRefresh_InvalidToken() {
+        when(refreshTokenService.rotate("unknown")).thenThrow(new InvalidCredentialsException("Invalid refresh token"));
+
+        assertThrows(InvalidCredentialsException.class, () -> userService.refresh("unknown"));
+        verify(jwtUtil, never()).generateToken(anyString(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testLoginUser_RehashesPasswordWithLowerCost() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("juan@example.com");
+        request.setPassword("Password123@");
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("Password123@"));
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.encode("Password123@")).thenReturn("rehashedPassword");
+        when(jwtUtil.generateToken(anyString(), anyLong(), anyLong(), any())).thenReturn("jwt.token.here");
+
+        userService.login(request);
+
+        assertEquals("rehashedPassword", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    void testLoginUser_KeepsPasswordWithCalibratedCost() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("juan@example.com");
+        request.setPassword("Password123@");
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+        user.setPassword(new BCryptPasswordEncoder(5).encode("Password123@"));
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(jwtUtil.generateToken(anyString(), anyLong(), anyLong(), any())).thenReturn("jwt.token.here");
+
+        userService.login(request);
+
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testLoginUser_KeepsPasswordWithHigherCost() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("juan@example.com");
+        request.setPassword("Password123@");
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+        user.setPassword(new BCryptPasswordEncoder(6).encode("Password123@"));
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(jwtUtil.generateToken(anyString(), anyLong(), anyLong(), any())).thenReturn("jwt.token.here");
+
+        userService.login(request);
+
+        // Hash de un nodo con más costo calibrado: no se baja
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).save(any());
     }
 
     @Test
@@ -158,32 +384,118 @@ class UserServiceTest {
     @Test
     void testLogoutUser_Success() {
         String token = "valid.token.here";
-        when(jwtUtil.validateToken(anyString())).thenReturn(true);
-        when(jwtUtil.extractUserId(anyString())).thenReturn(1L);
-        when(jwtUtil.extractExpiration(anyString())).thenReturn(new java.util.Date());
-        when(tokenBlacklistRepository.existsByToken(anyString())).thenReturn(false);
+        when(jwtUtil.verify(anyString())).thenReturn(new VerifiedClaims(
+                "juan@example.com", 1L, "juan@example.com", Instant.now(), Instant.now().plusSeconds(3600), 0L, null));
+        when(tokenBlacklistStore.revoke(anyString(), eq(1L), any(Instant.class))).thenReturn(true);
 
         assertDoesNotThrow(() -> userService.logout(token));
-        verify(tokenBlacklistRepository, times(1)).save(any(TokenBlacklist.class));
+        verify(tokenBlacklistStore, times(1)).revoke(eq(TokenDigest.sha256(token)), eq(1L), any(Instant.class));
+    }
+
+    @Test
+    void testLogoutRevokesRefreshTokensOfSession() {
+        String token = "valid.token.here";
+        when(jwtUtil.verify(token)).thenReturn(new VerifiedClaims("juan@example.com", 1L, "juan@example.com",
+                Instant.now(), Instant.now().plusSeconds(3600), 0L, "family-1"));
+        when(tokenBlacklistStore.revoke(anyString(), eq(1L), any(Instant.class))).thenReturn(true);
+
+        userService.logout(token);
+
+        verify(refreshTokenService).revokeFamily("family-1");
+    }
+
+    @Test
+    void testRefreshFailsAfterLogout() {
+        Map<String, RefreshToken> stored = new HashMap<>();
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken saved = invocation.getArgument(0);
+            saved.setId((long) stored.size() + 1);
+            stored.put(saved.getTokenHash(), saved);
+            return saved;
+        });
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+        when(refreshTokenRepository.revokeFamily(anyString(), any())).thenAnswer(invocation -> {
+            stored.values().stream()
+                    .filter(t -> t.getFamilyId().equals(invocation.getArgument(0)) && t.getRevokedAt() == null)
+                    .forEach(t -> t.setRevokedAt(invocation.getArgument(1)));
+            return 1;
+        });
+
+        JwtUtil realJwtUtil = new JwtUtil("YWJjZGVmZ2hpamtsbW5vcHFyc3R1dnd4eXoxMjM0NTY3ODkwYWJjZGVmZ2hpamtsbW5vcA==", 900_000L);
+        UserService service = new UserService(userRepository, accountServiceClient, passwordValidator, realJwtUtil,
+                tokenBlacklistStore,
+                new PasswordHashingExecutor(1, 4, Duration.ofSeconds(5), new SimpleMeterRegistry()),
+                new PasswordCostCalibrator(Duration.ofMillis(1), 4, 4, new SimpleMeterRegistry()),
+                outboxRepository,
+                new RefreshTokenService(refreshTokenRepository, userRepository, new SimpleMeterRegistry(),
+                        Duration.ofDays(14), Duration.ofSeconds(10), 100),
+                new UserProfileCache(profileInvalidationRepository, 100, Duration.ofMinutes(10), Duration.ofSeconds(5),
+                Duration.ofHours(1), 1000, new SimpleMeterRegistry()));
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("juan@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("Password123@"));
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.of(user));
+        when(tokenBlacklistStore.revoke(anyString(), eq(1L), any(Instant.class))).thenReturn(true);
+
+        LoginRequest request = new LoginRequest();
+        request.setEmail("juan@example.com");
+        request.setPassword("Password123@");
+        LoginResponse session = service.login(request);
+
+        service.logout(session.getToken());
+
+        assertThrows(InvalidCredentialsException.class, () -> service.refresh(session.getRefreshToken()));
     }
 
     @Test
     void testIsTokenValid_Valid() {
         String token = "valid.token.here";
-        when(tokenBlacklistRepository.existsByToken(anyString())).thenReturn(false);
+        when(tokenBlacklistStore.isRevoked(TokenDigest.sha256(token))).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(claims(2L));
+        when(tokenBlacklistStore.isSuperseded(1L, 2L)).thenReturn(false);
 
         boolean isValid = userService.isTokenValid(token);
 
         assertTrue(isValid);
     }
 
+    @Test
+    void testIsTokenValid_SupersededByLogoutAll() {
+        String token = "old.token.here";
+        when(tokenBlacklistStore.isRevoked(TokenDigest.sha256(token))).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(claims(1L));
+        when(tokenBlacklistStore.isSuperseded(1L, 1L)).thenReturn(true);
+
+        assertFalse(userService.isTokenValid(token));
+    }
+
+    @Test
+    void testLogoutAll_BumpsTokenVersion() {
+        String token = "valid.token.here";
+        when(jwtUtil.verify(token)).thenReturn(claims(2L));
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(3L));
+
+        userService.logoutAll(token);
+
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(tokenBlacklistStore).revokeAllBefore(1L, 3L);
+    }
+
     @Test
     void testIsTokenValid_Blacklisted() {
         String token = "blacklisted.token";
-        when(tokenBlacklistRepository.existsByToken(anyString())).thenReturn(true);
+        when(tokenBlacklistStore.isRevoked(TokenDigest.sha256(token))).thenReturn(true);
 
         boolean isValid = userService.isTokenValid(token);
 
         assertFalse(isValid);
     }
+
+    private static VerifiedClaims claims(long tokenVersion) {
+        return new VerifiedClaims("juan@example.com", 1L, "juan@example.com",
+                Instant.now(), Instant.now().plusSeconds(3600), tokenVersion, null);
+    }
 }
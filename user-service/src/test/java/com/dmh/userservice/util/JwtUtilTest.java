@@ -4,7 +4,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,41 +17,51 @@ class JwtUtilTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil();
-        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
-        ReflectionTestUtils.setField(jwtUtil, "expiration", EXPIRATION);
+        jwtUtil = new JwtUtil(SECRET, EXPIRATION);
     }
 
     @Test
     void testGenerateToken() {
-        String token = jwtUtil.generateToken("test@example.com", 1L);
+        String token = jwtUtil.generateToken("test@example.com", 1L, 0L);
         assertNotNull(token);
         assertFalse(token.isEmpty());
     }
 
     @Test
     void testValidateToken() {
-        String token = jwtUtil.generateToken("test@example.com", 1L);
+        String token = jwtUtil.generateToken("test@example.com", 1L, 0L);
         assertTrue(jwtUtil.validateToken(token, "test@example.com"));
     }
 
     @Test
     void testExtractUserId() {
         Long userId = 1L;
-        String token = jwtUtil.generateToken("test@example.com", userId);
+        String token = jwtUtil.generateToken("test@example.com", userId, 0L);
         assertEquals(userId, jwtUtil.extractUserId(token));
     }
 
+    @Test
+    void testSessionIdClaim() {
+        assertEquals("family-1", jwtUtil.verify(jwtUtil.generateToken("test@example.com", 1L, 0L, "family-1")).sessionId());
+        assertNull(jwtUtil.verify(jwtUtil.generateToken("test@example.com", 1L, 0L)).sessionId());
+    }
+
     @Test
     void testExtractEmail() {
         String email = "test@example.com";
-        String token = jwtUtil.generateToken(email, 1L);
+        String token = jwtUtil.generateToken(email, 1L, 0L);
         assertEquals(email, jwtUtil.extractEmail(token));
     }
 
+    @Test
+    void testEmbedsTokenVersion() {
+        String token = jwtUtil.generateToken("test@example.com", 1L, 4L);
+        assertEquals(4L, jwtUtil.verify(token).tokenVersion());
+    }
+
     @Test
     void testValidateTokenWithoutEmail() {
-        String token = jwtUtil.generateToken("test@example.com", 1L);
+        String token = jwtUtil.generateToken("test@example.com", 1L, 0L);
         assertTrue(jwtUtil.validateToken(token));
     }
 }